@@ -0,0 +1,81 @@
+package edu.unimagdalena.inventoryservice.config;
+
+import edu.unimagdalena.commons.IdGenerator;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "inventory")
+public class InventoryProperties {
+
+    private final Id id = new Id();
+    private final HotItems hotItems = new HotItems();
+    private final Holds holds = new Holds();
+
+    @Data
+    public static class Id {
+        /**
+         * How primary keys of new items and holds are generated.
+         */
+        private IdGenerator.Strategy strategy = IdGenerator.Strategy.RANDOM;
+    }
+
+    @Data
+    public static class HotItems {
+        /**
+         * Keep the stock of the listed items in memory and reserve it without touching their rows.
+         * The stock is held per instance, so enable it on a single replica only.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Ids of the items under heavy contention, e.g. the ones on a flash sale.
+         */
+        private Set<String> ids = new HashSet<>();
+
+        /**
+         * Independent cells each hot item's stock is split across, so concurrent reservations rarely
+         * contend on the same one.
+         */
+        private int stripes = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * How often the net change of each hot item is written to its {@code inventory} row.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * Directory of the write-ahead log that makes reservations durable before they are flushed.
+         */
+        private Path walDirectory = Path.of("data", "stock-wal");
+    }
+
+    @Data
+    public static class Holds {
+        /**
+         * How long a hold keeps its units when the request does not say.
+         */
+        private Duration defaultTtl = Duration.ofMinutes(15);
+
+        /**
+         * Longest hold a request may ask for.
+         */
+        private Duration maxTtl = Duration.ofHours(2);
+
+        /**
+         * Resolution of expiry; a hold is released at most one tick after it is due.
+         */
+        private Duration tick = Duration.ofSeconds(1);
+
+        /**
+         * Slots of the timing wheel holds are tracked in. With more slots than ticks in the usual TTL
+         * each tick only visits the holds that are actually due.
+         */
+        private int wheelSlots = 1024;
+    }
+}
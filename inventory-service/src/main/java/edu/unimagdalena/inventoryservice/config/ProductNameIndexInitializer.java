@@ -0,0 +1,52 @@
+package edu.unimagdalena.inventoryservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the unique index on {@code product_name} behind the by-product lookups. It is built
+ * concurrently so that writes are not blocked while it is created, and is kept out of the entity
+ * mapping so that {@code ddl-auto=update} does not drop and recreate it on every start.
+ * <p>
+ * A concurrent build that fails leaves an invalid index behind, which {@code IF NOT EXISTS} would then
+ * skip on every later start while writes keep maintaining it. Such an index is dropped and rebuilt,
+ * and if duplicate product names make the build fail, startup fails until they are merged.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductNameIndexInitializer implements ApplicationRunner {
+
+    public static final String INDEX_NAME = "ux_inventory_product_name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Boolean> valid = jdbcTemplate.queryForList("SELECT i.indisvalid FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?", Boolean.class, INDEX_NAME);
+        if (!valid.isEmpty() && valid.get(0)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            dropIndex();
+        }
+        try {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX_NAME
+                    + " ON inventory (product_name)");
+        } catch (DataIntegrityViolationException e) {
+            dropIndex();
+            throw new IllegalStateException("Cannot build " + INDEX_NAME + ": some product names are stocked by"
+                    + " more than one inventory item; merge them and restart", e);
+        }
+    }
+
+    private void dropIndex() {
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME);
+    }
+}
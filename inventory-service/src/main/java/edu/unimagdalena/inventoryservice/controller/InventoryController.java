@@ -1,25 +1,71 @@
 package edu.unimagdalena.inventoryservice.controller;
 
+import edu.unimagdalena.inventoryservice.config.ProductNameIndexInitializer;
+import edu.unimagdalena.inventoryservice.dto.HoldRequest;
+import edu.unimagdalena.inventoryservice.dto.StockLevel;
+import edu.unimagdalena.inventoryservice.dto.StockRequest;
 import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import edu.unimagdalena.inventoryservice.service.HotItemWriteException;
+import edu.unimagdalena.inventoryservice.service.InsufficientStockException;
 import edu.unimagdalena.inventoryservice.service.InventoryService;
+import edu.unimagdalena.inventoryservice.service.StockHoldService;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/inventory")
 @RequiredArgsConstructor
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockHoldService stockHoldService;
 
     @GetMapping
     public Flux<Inventory> getAllInventoryItems() {
         return inventoryService.getAllInventoryItems();
     }
 
+    @GetMapping(params = "ids")
+    public Flux<Inventory> getInventoryItemsByIds(@RequestParam List<String> ids) {
+        return inventoryService.getInventoryItemsByIds(ids);
+    }
+
+    /**
+     * Same as {@code GET ?ids=} for carts too large for a URL; the body is a JSON array of ids.
+     */
+    @PostMapping("/lookup")
+    public Flux<Inventory> lookupInventoryItems(@RequestBody List<String> ids) {
+        return inventoryService.getInventoryItemsByIds(ids);
+    }
+
+    @GetMapping("/by-product/{name}")
+    public Mono<Inventory> getInventoryItemByProductName(@PathVariable String name) {
+        return inventoryService.getInventoryItemByProductName(name);
+    }
+
+    @GetMapping("/by-product")
+    public Flux<Inventory> getInventoryItemsByProductNames(@RequestParam List<String> names) {
+        return inventoryService.getInventoryItemsByProductNames(names);
+    }
+
+    /**
+     * Same as {@code GET /by-product?names=} for long lists; the body is a JSON array of product names.
+     */
+    @PostMapping("/by-product")
+    public Flux<Inventory> lookupInventoryItemsByProductNames(@RequestBody List<String> names) {
+        return inventoryService.getInventoryItemsByProductNames(names);
+    }
+
     @GetMapping("/{id}")
     public Mono<Inventory> getInventoryItemById(@PathVariable String id) {
         return inventoryService.getInventoryItemById(id);
@@ -36,9 +82,79 @@ public class InventoryController {
         return inventoryService.updateInventoryItem(id, inventory);
     }
 
+    @PostMapping("/{id}/reserve")
+    public Mono<ResponseEntity<StockLevel>> reserveStock(@PathVariable String id, @RequestBody StockRequest request) {
+        return inventoryService.reserveStock(id, request.quantity())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/release")
+    public Mono<ResponseEntity<StockLevel>> releaseStock(@PathVariable String id, @RequestBody StockRequest request) {
+        return inventoryService.releaseStock(id, request.quantity())
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Holds stock while a checkout completes; it is given back unless the hold is confirmed before
+     * its {@code expiresAt}.
+     */
+    @PostMapping("/{id}/holds")
+    public Mono<ResponseEntity<StockHold>> holdStock(@PathVariable String id, @RequestBody HoldRequest request) {
+        return stockHoldService.holdStock(id, request.quantity(), request.ttl())
+                .map(hold -> ResponseEntity.status(HttpStatus.CREATED).body(hold))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    public Mono<ResponseEntity<Void>> confirmHold(@PathVariable String holdId) {
+        return stockHoldService.confirmHold(holdId)
+                .map(confirmed -> confirmed ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public Mono<ResponseEntity<Void>> releaseHold(@PathVariable String holdId) {
+        return stockHoldService.releaseHold(holdId)
+                .map(released -> released ? ResponseEntity.noContent().<Void>build() : ResponseEntity.notFound().<Void>build());
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteInventoryItem(@PathVariable String id) {
         return inventoryService.deleteInventoryItem(id);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<String> handleInsufficientStock(InsufficientStockException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(HotItemWriteException.class)
+    public ResponseEntity<String> handleHotItemWrite(HotItemWriteException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    /**
+     * Only a clash on {@link ProductNameIndexInitializer#INDEX_NAME} is a duplicate product; any other
+     * violation is left to the default error handling.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDuplicate(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation
+                && ProductNameIndexInitializer.INDEX_NAME.equals(violation.getConstraintName())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("An inventory item for this product already exists");
+        }
+        throw e;
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package edu.unimagdalena.inventoryservice.dto;
+
+import java.time.Duration;
+
+/**
+ * Body of POST /api/inventory/{id}/holds. {@code ttl} is an ISO-8601 duration such as {@code PT10M};
+ * without it the hold lasts {@code inventory.holds.default-ttl}.
+ */
+public record HoldRequest(int quantity, Duration ttl) {
+}
@@ -0,0 +1,7 @@
+package edu.unimagdalena.inventoryservice.dto;
+
+/**
+ * Quantity left for an item right after a reservation or release.
+ */
+public record StockLevel(String id, int quantity) {
+}
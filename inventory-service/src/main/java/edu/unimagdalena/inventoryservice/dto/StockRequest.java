@@ -0,0 +1,7 @@
+package edu.unimagdalena.inventoryservice.dto;
+
+/**
+ * Body of POST /api/inventory/{id}/reserve and /release.
+ */
+public record StockRequest(int quantity) {
+}
@@ -10,6 +10,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "inventory")
@@ -24,4 +26,12 @@ public class Inventory {
 
     private String productName;
     private Integer quantity;
+
+    /**
+     * Optimistic lock column; a {@code null} version marks a new item so Spring Data persists it
+     * with a single INSERT even though the id is assigned up front.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package edu.unimagdalena.inventoryservice.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Units of an item taken off its stock while a checkout completes. The row exists exactly as long
+ * as the hold: confirming or cancelling it, or letting it expire, deletes it. Rows of holds on hot
+ * items are written by the hot stock flush and so trail the hold by up to one flush interval.
+ */
+@Entity
+@Table(name = "inventory_hold")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHold {
+
+    @Id
+    private String id;
+
+    private String inventoryId;
+    private Integer quantity;
+    private Instant expiresAt;
+
+    /**
+     * Left {@code null} on new holds so they are persisted with a single INSERT, as for {@link Inventory}.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+}
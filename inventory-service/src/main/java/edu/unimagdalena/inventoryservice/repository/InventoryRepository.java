@@ -2,12 +2,40 @@ package edu.unimagdalena.inventoryservice.repository;
 
 import edu.unimagdalena.inventoryservice.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
-public interface InventoryRepository extends JpaRepository<Inventory, String> {
-    Object findAllByIdIn(List<String> id1);
-}
\ No newline at end of file
+public interface InventoryRepository extends JpaRepository<Inventory, String>, InventoryRepositoryCustom {
+    /**
+     * Loads all items with the given ids with one {@code id IN (...)} query; callers keep the list
+     * well below PostgreSQL's bind parameter limit.
+     */
+    List<Inventory> findAllByIdIn(Collection<String> ids);
+
+    /**
+     * Served by the unique {@code ux_inventory_product_name} index.
+     */
+    Optional<Inventory> findByProductName(String productName);
+
+    List<Inventory> findAllByProductNameIn(Collection<String> productNames);
+
+    /**
+     * Deletes the item by id with a bulk JPQL delete, skipping the lookup {@code deleteById} does.
+     * Callers must keep hot items away from it, as their row is still the flush target.
+     *
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Inventory i where i.id = :id")
+    int removeById(@Param("id") String id);
+}
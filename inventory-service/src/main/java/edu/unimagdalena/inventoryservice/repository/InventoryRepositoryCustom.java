@@ -0,0 +1,77 @@
+package edu.unimagdalena.inventoryservice.repository;
+
+import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface InventoryRepositoryCustom {
+
+    /**
+     * Overwrites the product name and quantity of the item with the given id and returns the new row.
+     * Unlike {@link #reserve} and {@link #release}, the quantity is set rather than adjusted, so a
+     * caller that read the item first should pass its version: a reservation committed in between
+     * then fails the update instead of being overwritten.
+     *
+     * @return the updated item, or empty when no item has the given id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the item exists but its
+     *                                                                   version differs
+     */
+    @Transactional
+    Optional<Inventory> updateReturning(String id, Inventory changes);
+
+    /**
+     * Takes {@code quantity} units in a single conditional {@code UPDATE}, so concurrent reservations
+     * neither lose updates nor hold a row lock across round trips.
+     *
+     * @return the quantity left, or empty when no item has the given id or it has fewer units left
+     */
+    @Transactional
+    Optional<Integer> reserve(String id, int quantity);
+
+    /**
+     * Gives back {@code quantity} units in a single {@code UPDATE}.
+     *
+     * @return the quantity left, or empty when no item has the given id
+     */
+    @Transactional
+    Optional<Integer> release(String id, int quantity);
+
+    /**
+     * Adds the net stock changes of one write-ahead log segment to the items, inserts the holds taken
+     * and deletes the holds ended in it, and records the segment in {@code inventory_stock_wal}, all in
+     * one transaction, so a segment is applied exactly once.
+     *
+     * @return false if the segment had already been applied
+     */
+    @Transactional
+    boolean applyStockSegment(long segment, Map<String, Long> deltas, Collection<StockHold> takenHolds,
+                              Collection<String> endedHolds);
+
+    /**
+     * @return the highest write-ahead log segment applied so far, or 0
+     */
+    long lastAppliedStockSegment();
+
+    /**
+     * Takes the held units off the item and inserts the hold in a single statement, so the units are
+     * never taken without a hold to give them back.
+     *
+     * @return the quantity left, or empty when no item has the given id or it has fewer units left
+     */
+    @Transactional
+    Optional<Integer> reserveHold(StockHold hold);
+
+    /**
+     * Deletes the given holds and, in the same transaction, gives their units back to their items
+     * with one {@code UPDATE} for all of them. Holds already confirmed or released are skipped, so
+     * each hold's units are given back at most once.
+     *
+     * @return the units given back per item
+     */
+    @Transactional
+    Map<String, Long> releaseHolds(Collection<String> holdIds);
+}
@@ -0,0 +1,176 @@
+package edu.unimagdalena.inventoryservice.repository;
+
+import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+public class InventoryRepositoryCustomImpl implements InventoryRepositoryCustom {
+
+    private static final String UPDATE = "UPDATE inventory SET product_name = :productName, quantity = :quantity,"
+            + " version = version + 1 WHERE id = :id";
+
+    private static final String RESERVE = "UPDATE inventory SET quantity = quantity - :quantity, version = version + 1"
+            + " WHERE id = :id AND quantity >= :quantity RETURNING quantity";
+
+    private static final String RESERVE_HOLD = "WITH taken AS (" + RESERVE + "),"
+            + " held AS (INSERT INTO inventory_hold (id, inventory_id, quantity, expires_at, version)"
+            + " SELECT :holdId, :id, :quantity, :expiresAt, 0 FROM taken)"
+            + " SELECT quantity FROM taken";
+
+    private static final String DELETE_HOLDS = "DELETE FROM inventory_hold WHERE id IN (:ids)"
+            + " RETURNING inventory_id, quantity";
+
+    private static final String RELEASE = "UPDATE inventory SET quantity = quantity + :quantity, version = version + 1"
+            + " WHERE id = :id RETURNING quantity";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Inventory> updateReturning(String id, Inventory changes) {
+        boolean checkVersion = changes.getVersion() != null;
+        NativeQuery<Inventory> query = session()
+                .createNativeQuery(UPDATE + (checkVersion ? " AND version = :version" : "") + " RETURNING *", Inventory.class);
+        query.setParameter("id", id, StandardBasicTypes.STRING)
+                .setParameter("productName", changes.getProductName(), StandardBasicTypes.STRING)
+                .setParameter("quantity", changes.getQuantity(), StandardBasicTypes.INTEGER);
+        if (checkVersion) {
+            query.setParameter("version", changes.getVersion(), StandardBasicTypes.LONG);
+        }
+        List<Inventory> updated = query.getResultList();
+        if (updated.isEmpty() && checkVersion && entityManager.find(Inventory.class, id) != null) {
+            throw new OptimisticLockingFailureException("Inventory item " + id + " was modified concurrently");
+        }
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Integer> reserve(String id, int quantity) {
+        return adjust(RESERVE, id, quantity);
+    }
+
+    @Override
+    @Transactional
+    public Optional<Integer> release(String id, int quantity) {
+        return adjust(RELEASE, id, quantity);
+    }
+
+    private Optional<Integer> adjust(String sql, String id, int quantity) {
+        List<Integer> remaining = session().createNativeQuery(sql, Integer.class)
+                .setParameter("id", id, StandardBasicTypes.STRING)
+                .setParameter("quantity", quantity, StandardBasicTypes.INTEGER)
+                .getResultList();
+        return remaining.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public boolean applyStockSegment(long segment, Map<String, Long> deltas, Collection<StockHold> takenHolds,
+                                     Collection<String> endedHolds) {
+        int recorded = entityManager.createNativeQuery(
+                        "INSERT INTO inventory_stock_wal (segment) VALUES (:segment) ON CONFLICT DO NOTHING")
+                .setParameter("segment", segment)
+                .executeUpdate();
+        if (recorded == 0) {
+            return false;
+        }
+        addStock(deltas);
+        takenHolds.forEach(entityManager::persist);
+        if (!endedHolds.isEmpty()) {
+            entityManager.createNativeQuery("DELETE FROM inventory_hold WHERE id IN (:ids)")
+                    .setParameter("ids", endedHolds)
+                    .executeUpdate();
+        }
+        return true;
+    }
+
+    @Override
+    public long lastAppliedStockSegment() {
+        Number last = (Number) entityManager
+                .createNativeQuery("SELECT COALESCE(MAX(segment), 0) FROM inventory_stock_wal")
+                .getSingleResult();
+        return last.longValue();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Integer> reserveHold(StockHold hold) {
+        List<Integer> remaining = session().createNativeQuery(RESERVE_HOLD, Integer.class)
+                .setParameter("holdId", hold.getId(), StandardBasicTypes.STRING)
+                .setParameter("id", hold.getInventoryId(), StandardBasicTypes.STRING)
+                .setParameter("quantity", hold.getQuantity(), StandardBasicTypes.INTEGER)
+                .setParameter("expiresAt", hold.getExpiresAt(), StandardBasicTypes.INSTANT)
+                .getResultList();
+        return remaining.stream().findFirst();
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> releaseHolds(Collection<String> holdIds) {
+        if (holdIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object[]> released = session().createNativeQuery(DELETE_HOLDS, Object[].class)
+                .addScalar("inventory_id", StandardBasicTypes.STRING)
+                .addScalar("quantity", StandardBasicTypes.LONG)
+                .setParameterList("ids", holdIds)
+                .getResultList();
+        Map<String, Long> units = new HashMap<>();
+        for (Object[] hold : released) {
+            units.merge((String) hold[0], (Long) hold[1], Long::sum);
+        }
+        addStock(units);
+        return units;
+    }
+
+    /**
+     * Adds each delta to its item's quantity with a single {@code UPDATE ... WHERE id IN (...)}. The ids
+     * are compared with the column directly, as in every other statement here, so they bind as
+     * {@code uuid} once {@code db/migration/inventory-uuid-primary-key.sql} has been applied; a
+     * {@code VALUES} list would type them as text.
+     */
+    private void addStock(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        StringJoiner cases = new StringJoiner(" ", "CASE id ", " END");
+        StringJoiner ids = new StringJoiner(", ", "(", ")");
+        for (int i = 0; i < deltas.size(); i++) {
+            cases.add("WHEN :id" + i + " THEN :delta" + i);
+            ids.add(":id" + i);
+        }
+        Query query = entityManager.createNativeQuery("UPDATE inventory"
+                + " SET quantity = quantity + " + cases + ", version = version + 1"
+                + " WHERE id IN " + ids);
+        int i = 0;
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            query.setParameter("id" + i, delta.getKey()).setParameter("delta" + i, delta.getValue());
+            i++;
+        }
+        query.executeUpdate();
+    }
+
+    /**
+     * The Hibernate session behind the entity manager, whose {@code createNativeQuery(String, Class)}
+     * returns a typed {@link NativeQuery}.
+     */
+    private Session session() {
+        return entityManager.unwrap(Session.class);
+    }
+}
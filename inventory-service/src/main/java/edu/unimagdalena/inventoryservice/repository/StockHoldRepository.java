@@ -0,0 +1,37 @@
+package edu.unimagdalena.inventoryservice.repository;
+
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockHoldRepository extends JpaRepository<StockHold, String> {
+
+    /**
+     * Pages through the holds still running at {@code now}, by id after {@code after}.
+     */
+    List<StockHold> findByExpiresAtAfterAndIdGreaterThanOrderById(Instant now, String after, Limit limit);
+
+    /**
+     * Pages through the holds that expired by {@code now}, by id after {@code after}.
+     */
+    List<StockHold> findByExpiresAtLessThanEqualAndIdGreaterThanOrderById(Instant now, String after, Limit limit);
+
+    /**
+     * Deletes with a single statement; a hold is confirmed or released by whoever deletes its row.
+     *
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from StockHold h where h.id = :id")
+    int removeById(@Param("id") String id);
+}
@@ -0,0 +1,76 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of hold expiries. A hold due in {@code d} ticks goes into slot
+ * {@code (now + d) mod slots} along with the tick it is due at; each {@link #advance} visits only the
+ * next slot and expires the holds in it that are due, leaving those that are one or more turns of the
+ * wheel away. Scheduling and cancelling are O(1), and a tick costs the size of one slot rather than
+ * the number of outstanding holds.
+ */
+final class HoldWheel {
+
+    private final List<Map<String, Long>> slots;
+    private final Map<String, Map<String, Long>> slotOf = new HashMap<>();
+    private long tick;
+
+    HoldWheel(int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("slots must be positive");
+        }
+        this.slots = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            this.slots.add(new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Expires the hold on the {@code delay}-th call to {@link #advance} from now; a delay below one
+     * expires it on the next one.
+     */
+    synchronized void schedule(String holdId, long delay) {
+        cancel(holdId);
+        long due = tick + Math.max(1, delay);
+        Map<String, Long> slot = slots.get((int) (due % slots.size()));
+        slot.put(holdId, due);
+        slotOf.put(holdId, slot);
+    }
+
+    /**
+     * @return false if the hold was not scheduled, or has already expired
+     */
+    synchronized boolean cancel(String holdId) {
+        Map<String, Long> slot = slotOf.remove(holdId);
+        return slot != null && slot.remove(holdId) != null;
+    }
+
+    synchronized int size() {
+        return slotOf.size();
+    }
+
+    /**
+     * Moves the wheel one tick forward.
+     *
+     * @return the holds that expired on this tick
+     */
+    synchronized List<String> advance() {
+        tick++;
+        Map<String, Long> slot = slots.get((int) (tick % slots.size()));
+        List<String> expired = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Long>> it = slot.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getValue() <= tick) {
+                expired.add(entry.getKey());
+                slotOf.remove(entry.getKey());
+                it.remove();
+            }
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,12 @@
+package edu.unimagdalena.inventoryservice.service;
+
+/**
+ * An update or delete targeted a hot item, whose row trails its in-memory stock; only reserve and
+ * release apply to it.
+ */
+public class HotItemWriteException extends RuntimeException {
+
+    public HotItemWriteException(String id) {
+        super(id + " is a hot item; only reserve and release apply to it");
+    }
+}
@@ -0,0 +1,202 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import edu.unimagdalena.inventoryservice.config.InventoryProperties;
+import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import edu.unimagdalena.inventoryservice.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hot-item mode, enabled with {@code inventory.hot-items.enabled}. The stock of the items listed in
+ * {@code inventory.hot-items.ids} is held in memory in a {@link StripedStock}, which is authoritative
+ * while the service runs, and reservations against it never touch the {@code inventory} row.
+ * <p>
+ * Each change is appended to a {@link StockWriteAheadLog} and only acknowledged once it is on disk.
+ * Every {@code flush-interval} the log is rotated and the net change of the closed segment is added to
+ * the rows, in the same transaction that records the segment as applied. On startup any segment left
+ * by a crash is applied the same way before the counters are loaded, so an acknowledged reservation
+ * is never lost and stock is never handed out twice.
+ * <p>
+ * The counters live in the memory of this instance. Each replica would load and hand out the full
+ * stock of a hot item on its own, so hot-item mode oversells unless exactly one instance runs with it
+ * enabled.
+ */
+@Slf4j
+@Component
+public class HotStock implements DisposableBean {
+
+    private final InventoryRepository inventoryRepository;
+    private final Map<String, StripedStock> counters = new ConcurrentHashMap<>();
+    private final StockWriteAheadLog wal;
+    private final Disposable flusher;
+
+    public HotStock(InventoryRepository inventoryRepository, JdbcTemplate jdbcTemplate,
+                    InventoryProperties inventoryProperties, Scheduler blockingScheduler) throws IOException {
+        InventoryProperties.HotItems config = inventoryProperties.getHotItems();
+        this.inventoryRepository = inventoryRepository;
+        if (!config.isEnabled()) {
+            this.wal = null;
+            this.flusher = null;
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS inventory_stock_wal"
+                + " (segment BIGINT PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT now())");
+        this.wal = new StockWriteAheadLog(config.getWalDirectory());
+        applyClosedSegments();
+        wal.open(inventoryRepository.lastAppliedStockSegment() + 1);
+        for (String id : config.getIds()) {
+            inventoryRepository.findById(id).ifPresent(item ->
+                    counters.put(id, new StripedStock(item.getQuantity(), config.getStripes())));
+        }
+        // a failed flush leaves its segment on disk; the next tick applies it
+        this.flusher = Flux.interval(config.getFlushInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::flush)
+                        .subscribeOn(blockingScheduler)
+                        .onErrorResume(e -> {
+                            log.warn("Flushing hot stock failed; retrying on the next tick", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public boolean manages(String id) {
+        return counters.containsKey(id);
+    }
+
+    /**
+     * The item with its quantity replaced by the in-memory one, which the row trails by up to one
+     * flush interval.
+     */
+    public Inventory withLiveQuantity(Inventory item) {
+        StripedStock stock = counters.get(item.getId());
+        if (stock != null) {
+            item.setQuantity((int) stock.available());
+        }
+        return item;
+    }
+
+    /**
+     * Blocks until the reservation is durable.
+     *
+     * @return the quantity left, or empty if fewer than {@code quantity} units are left
+     */
+    public OptionalLong reserve(String id, int quantity) {
+        return take(id, quantity, () -> wal.append(id, -quantity));
+    }
+
+    /**
+     * Takes the held units like {@link #reserve}, logging the hold along with them; its
+     * {@code inventory_hold} row is written by the flush that applies them to the item's row.
+     *
+     * @return the quantity left, or empty if fewer than the held units are left
+     */
+    public OptionalLong reserveHold(StockHold hold) {
+        return take(hold.getInventoryId(), hold.getQuantity(), () -> wal.appendHoldTaken(hold));
+    }
+
+    /**
+     * Blocks until the release is durable.
+     *
+     * @return the quantity left
+     */
+    public long release(String id, int quantity) {
+        return give(id, quantity, () -> wal.append(id, quantity));
+    }
+
+    /**
+     * Ends a hold taken through this instance or before the item was hot; its row is deleted by the
+     * next flush. Blocks until the end of the hold is durable.
+     *
+     * @param giveBack whether the held units go back to the stock, or stay taken because the hold
+     *                 was confirmed
+     */
+    public void endHold(StockHold hold, boolean giveBack) {
+        int units = giveBack ? hold.getQuantity() : 0;
+        give(hold.getInventoryId(), units, () -> wal.appendHoldEnded(hold, units));
+    }
+
+    /**
+     * Writes the changes logged since the last flush to the {@code inventory} rows.
+     */
+    void flush() {
+        try {
+            wal.rotate();
+            applyClosedSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (wal == null) {
+            return;
+        }
+        flusher.dispose();
+        flush();
+        wal.close();
+    }
+
+    private OptionalLong take(String id, int quantity, Append append) {
+        StripedStock stock = counters.get(id);
+        if (!stock.tryReserve(quantity)) {
+            return OptionalLong.empty();
+        }
+        long position;
+        try {
+            position = append.run();
+        } catch (IOException | RuntimeException e) {
+            stock.release(quantity);
+            throw e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+        }
+        sync(position);
+        return OptionalLong.of(stock.available());
+    }
+
+    private long give(String id, int quantity, Append append) {
+        StripedStock stock = counters.get(id);
+        try {
+            sync(append.run());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        stock.release(quantity);
+        return stock.available();
+    }
+
+    private void applyClosedSegments() throws IOException {
+        for (long number : wal.closedSegments()) {
+            StockWriteAheadLog.Segment segment = wal.read(number);
+            inventoryRepository.applyStockSegment(number, segment.deltas(), segment.takenHolds().values(),
+                    segment.endedHolds());
+            wal.delete(number);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Append {
+        long run() throws IOException;
+    }
+
+    private void sync(long position) {
+        try {
+            wal.sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
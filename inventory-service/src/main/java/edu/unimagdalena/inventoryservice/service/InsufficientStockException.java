@@ -0,0 +1,11 @@
+package edu.unimagdalena.inventoryservice.service;
+
+/**
+ * A reservation asked for more units than the item has left; nothing was reserved.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(String id, int requested) {
+        super("Not enough stock of " + id + " to reserve " + requested);
+    }
+}
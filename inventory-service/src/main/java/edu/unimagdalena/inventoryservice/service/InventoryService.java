@@ -1,56 +1,157 @@
 package edu.unimagdalena.inventoryservice.service;
 
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.inventoryservice.dto.StockLevel;
 import edu.unimagdalena.inventoryservice.entity.Inventory;
 import edu.unimagdalena.inventoryservice.repository.InventoryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
 
+    /**
+     * Ids bound per {@code IN} query by {@link #getInventoryItemsByIds}, far below the 65535 bind
+     * parameters PostgreSQL accepts per statement.
+     */
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+
     private final InventoryRepository inventoryRepository;
+    private final IdGenerator idGenerator;
+    private final Scheduler blockingScheduler;
+    private final HotStock hotStock;
 
     public Flux<Inventory> getAllInventoryItems() {
         return Flux.defer(() -> Flux.fromIterable(inventoryRepository.findAll()))
-                .subscribeOn(Schedulers.boundedElastic());
+                .map(this::withLiveQuantity)
+                .subscribeOn(blockingScheduler);
     }
 
     public Mono<Inventory> getInventoryItemById(String id) {
         return Mono.defer(() -> Mono.justOrEmpty(inventoryRepository.findById(id)))
-                .subscribeOn(Schedulers.boundedElastic());
+                .map(this::withLiveQuantity)
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Streams the items with the given ids, one query per {@value #LOOKUP_CHUNK_SIZE} distinct ids;
+     * unknown ids are skipped.
+     */
+    public Flux<Inventory> getInventoryItemsByIds(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("ids must not be empty"));
+        }
+        return Flux.fromIterable(ids)
+                .distinct()
+                .buffer(LOOKUP_CHUNK_SIZE)
+                .concatMap(chunk -> Flux.defer(() -> Flux.fromIterable(inventoryRepository.findAllByIdIn(chunk)))
+                        .map(this::withLiveQuantity)
+                        .subscribeOn(blockingScheduler));
+    }
+
+    /**
+     * Finds the item stocking the product, which is what {@code Order.productName} refers to.
+     */
+    public Mono<Inventory> getInventoryItemByProductName(String productName) {
+        return Mono.defer(() -> Mono.justOrEmpty(inventoryRepository.findByProductName(productName)))
+                .map(this::withLiveQuantity)
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Like {@link #getInventoryItemsByIds} but by product name; unknown names are skipped.
+     */
+    public Flux<Inventory> getInventoryItemsByProductNames(List<String> productNames) {
+        if (productNames.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("names must not be empty"));
+        }
+        return Flux.fromIterable(productNames)
+                .distinct()
+                .buffer(LOOKUP_CHUNK_SIZE)
+                .concatMap(chunk -> Flux.defer(() -> Flux.fromIterable(inventoryRepository.findAllByProductNameIn(chunk)))
+                        .map(this::withLiveQuantity)
+                        .subscribeOn(blockingScheduler));
     }
 
     public Mono<Inventory> createInventoryItem(Inventory inventory) {
-        inventory.setId(UUID.randomUUID().toString());
+        inventory.setId(idGenerator.nextId());
+        inventory.setVersion(null);
         return Mono.defer(() -> Mono.just(inventoryRepository.save(inventory)))
-                .subscribeOn(Schedulers.boundedElastic());
+                .subscribeOn(blockingScheduler);
     }
 
+    /**
+     * Fails with {@link HotItemWriteException} for a hot item, whose row trails its in-memory stock.
+     */
     public Mono<Inventory> updateInventoryItem(String id, Inventory inventory) {
-        return Mono.defer(() -> {
-            if (inventoryRepository.existsById(id)) {
-                inventory.setId(id);
-                return Mono.just(inventoryRepository.save(inventory));
-            }
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic());
+        if (hotStock.manages(id)) {
+            return Mono.error(new HotItemWriteException(id));
+        }
+        return Mono.defer(() -> Mono.justOrEmpty(inventoryRepository.updateReturning(id, inventory)))
+                .subscribeOn(blockingScheduler);
     }
 
-    public Mono<Void> deleteInventoryItem(String id) {
+    /**
+     * Takes units off an item without a read-modify-write; fails with {@link InsufficientStockException}
+     * if fewer are left, and is empty if there is no such item. Hot items are reserved from
+     * {@link HotStock} instead of their row.
+     */
+    public Mono<StockLevel> reserveStock(String id, int quantity) {
+        if (quantity < 1) {
+            return Mono.error(new IllegalArgumentException("quantity must be positive"));
+        }
+        if (hotStock.manages(id)) {
+            return Mono.defer(() -> {
+                        OptionalLong remaining = hotStock.reserve(id, quantity);
+                        if (remaining.isEmpty()) {
+                            return Mono.error(new InsufficientStockException(id, quantity));
+                        }
+                        return Mono.just(new StockLevel(id, (int) remaining.getAsLong()));
+                    })
+                    .subscribeOn(blockingScheduler);
+        }
         return Mono.defer(() -> {
-            inventoryRepository.deleteById(id);
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+                    Optional<Integer> remaining = inventoryRepository.reserve(id, quantity);
+                    if (remaining.isEmpty() && inventoryRepository.existsById(id)) {
+                        return Mono.error(new InsufficientStockException(id, quantity));
+                    }
+                    return Mono.justOrEmpty(remaining.map(left -> new StockLevel(id, left)));
+                })
+                .subscribeOn(blockingScheduler);
     }
 
+    public Mono<StockLevel> releaseStock(String id, int quantity) {
+        if (quantity < 1) {
+            return Mono.error(new IllegalArgumentException("quantity must be positive"));
+        }
+        if (hotStock.manages(id)) {
+            return Mono.fromCallable(() -> new StockLevel(id, (int) hotStock.release(id, quantity)))
+                    .subscribeOn(blockingScheduler);
+        }
+        return Mono.defer(() -> Mono.justOrEmpty(inventoryRepository.release(id, quantity)
+                        .map(left -> new StockLevel(id, left))))
+                .subscribeOn(blockingScheduler);
+    }
 
+    public Mono<Void> deleteInventoryItem(String id) {
+        if (hotStock.manages(id)) {
+            return Mono.error(new HotItemWriteException(id));
+        }
+        return Mono.fromRunnable(() -> inventoryRepository.removeById(id))
+                .subscribeOn(blockingScheduler).then();
+    }
+
+    private Inventory withLiveQuantity(Inventory item) {
+        return hotStock.manages(item.getId()) ? hotStock.withLiveQuantity(item) : item;
+    }
 }
\ No newline at end of file
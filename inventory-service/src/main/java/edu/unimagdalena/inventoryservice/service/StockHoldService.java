@@ -0,0 +1,259 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.inventoryservice.config.InventoryProperties;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import edu.unimagdalena.inventoryservice.repository.InventoryRepository;
+import edu.unimagdalena.inventoryservice.repository.StockHoldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds stock while a checkout completes. Confirming a hold keeps its units taken, while cancelling it
+ * or letting its TTL pass gives them back. The units are never taken without a durable hold to give
+ * them back: for an item kept in its row, taking them and inserting the {@code inventory_hold} row is
+ * a single statement; for a hot item, the hold is written to the {@link HotStock} log along with the
+ * units, and its row follows with the next flush.
+ * <p>
+ * Expiry is tracked in a {@link HoldWheel} that moves one slot every {@code inventory.holds.tick}, so no
+ * job ever scans the table. The holds due on a tick are released together: their rows are deleted and
+ * their units given back in one transaction, which is also what makes a hold confirmed, cancelled and
+ * expired at the same time count only once. Holds of hot items are arbitrated in memory instead and
+ * end through the log. On startup the running holds are put back on the wheel and the ones that
+ * expired while the service was down are released, a page at a time.
+ */
+@Slf4j
+@Service
+public class StockHoldService implements DisposableBean {
+
+    /**
+     * Holds loaded or released per query or transaction.
+     */
+    static final int PAGE_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final StockHoldRepository stockHoldRepository;
+    private final HotStock hotStock;
+    private final IdGenerator idGenerator;
+    private final Scheduler blockingScheduler;
+    private final InventoryProperties.Holds config;
+    private final HoldWheel wheel;
+
+    /**
+     * Running holds of hot items; removing one from here is what entitles the caller to end it.
+     */
+    private final Map<String, StockHold> hotHolds = new ConcurrentHashMap<>();
+
+    private final Disposable expiry;
+
+    public StockHoldService(InventoryRepository inventoryRepository, StockHoldRepository stockHoldRepository,
+                            HotStock hotStock, IdGenerator idGenerator, Scheduler blockingScheduler,
+                            InventoryProperties inventoryProperties) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockHoldRepository = stockHoldRepository;
+        this.hotStock = hotStock;
+        this.idGenerator = idGenerator;
+        this.blockingScheduler = blockingScheduler;
+        this.config = inventoryProperties.getHolds();
+        this.wheel = new HoldWheel(config.getWheelSlots());
+        resume(Instant.now());
+        this.expiry = Flux.interval(config.getTick())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(this::expire)
+                        .subscribeOn(blockingScheduler)
+                        .onErrorResume(e -> {
+                            log.warn("Expiring stock holds failed", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Takes {@code quantity} units off the item for {@code ttl}, or {@code inventory.holds.default-ttl}
+     * when null. Fails with {@link InsufficientStockException} if fewer are left, and is empty if there
+     * is no such item.
+     */
+    public Mono<StockHold> holdStock(String id, int quantity, Duration ttl) {
+        Duration holdFor = ttl == null ? config.getDefaultTtl() : ttl;
+        if (quantity < 1) {
+            return Mono.error(new IllegalArgumentException("quantity must be positive"));
+        }
+        if (holdFor.isNegative() || holdFor.isZero() || holdFor.compareTo(config.getMaxTtl()) > 0) {
+            return Mono.error(new IllegalArgumentException("ttl must be positive and at most " + config.getMaxTtl()));
+        }
+        return Mono.defer(() -> {
+                    StockHold hold = StockHold.builder()
+                            .id(idGenerator.nextId())
+                            .inventoryId(id)
+                            .quantity(quantity)
+                            .expiresAt(Instant.now().plus(holdFor))
+                            .build();
+                    if (hotStock.manages(id)) {
+                        OptionalLong remaining = hotStock.reserveHold(hold);
+                        if (remaining.isEmpty()) {
+                            return Mono.error(new InsufficientStockException(id, quantity));
+                        }
+                        hotHolds.put(hold.getId(), hold);
+                    } else {
+                        Optional<Integer> remaining = inventoryRepository.reserveHold(hold);
+                        if (remaining.isEmpty()) {
+                            return inventoryRepository.existsById(id)
+                                    ? Mono.error(new InsufficientStockException(id, quantity))
+                                    : Mono.empty();
+                        }
+                    }
+                    wheel.schedule(hold.getId(), ticks(holdFor));
+                    return Mono.just(hold);
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Keeps the held units taken for good.
+     *
+     * @return false if there is no such hold, e.g. because it already expired
+     */
+    public Mono<Boolean> confirmHold(String holdId) {
+        return Mono.fromCallable(() -> {
+                    boolean confirmed = hotHolds.containsKey(holdId)
+                            ? endHotHold(holdId, false)
+                            : stockHoldRepository.removeById(holdId) == 1;
+                    wheel.cancel(holdId);
+                    return confirmed;
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Gives the held units back before the hold expires.
+     *
+     * @return false if there is no such hold
+     */
+    public Mono<Boolean> releaseHold(String holdId) {
+        return Mono.fromCallable(() -> {
+                    boolean released = hotHolds.containsKey(holdId)
+                            ? endHotHold(holdId, true)
+                            : !inventoryRepository.releaseHolds(List.of(holdId)).isEmpty();
+                    wheel.cancel(holdId);
+                    return released;
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Moves the wheel one tick and releases the holds that expired. Holds whose release fails go back
+     * on the wheel for the next tick.
+     */
+    void expire() {
+        List<String> inRows = new ArrayList<>();
+        for (String holdId : wheel.advance()) {
+            if (!hotHolds.containsKey(holdId)) {
+                inRows.add(holdId);
+                continue;
+            }
+            try {
+                endHotHold(holdId, true);
+            } catch (RuntimeException e) {
+                log.warn("Releasing expired hold {} failed; retrying on the next tick", holdId, e);
+                wheel.schedule(holdId, 1);
+            }
+        }
+        for (int from = 0; from < inRows.size(); from += PAGE_SIZE) {
+            List<String> chunk = inRows.subList(from, Math.min(inRows.size(), from + PAGE_SIZE));
+            try {
+                inventoryRepository.releaseHolds(chunk);
+            } catch (RuntimeException e) {
+                log.warn("Releasing {} expired holds failed; retrying on the next tick", chunk.size(), e);
+                chunk.forEach(holdId -> wheel.schedule(holdId, 1));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        expiry.dispose();
+    }
+
+    /**
+     * @return false if the hold had already ended
+     */
+    private boolean endHotHold(String holdId, boolean giveBack) {
+        StockHold hold = hotHolds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        try {
+            hotStock.endHold(hold, giveBack);
+        } catch (RuntimeException e) {
+            hotHolds.put(holdId, hold);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Puts the running holds back on the wheel and releases the ones that expired while the service
+     * was down, paging through both by id.
+     */
+    private void resume(Instant now) {
+        String after = "";
+        List<StockHold> page;
+        do {
+            page = stockHoldRepository.findByExpiresAtAfterAndIdGreaterThanOrderById(now, after, Limit.of(PAGE_SIZE));
+            for (StockHold hold : page) {
+                track(hold);
+                wheel.schedule(hold.getId(), ticks(Duration.between(now, hold.getExpiresAt())));
+                after = hold.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        after = "";
+        do {
+            page = stockHoldRepository.findByExpiresAtLessThanEqualAndIdGreaterThanOrderById(now, after,
+                    Limit.of(PAGE_SIZE));
+            List<String> inRows = new ArrayList<>();
+            for (StockHold hold : page) {
+                if (track(hold)) {
+                    wheel.schedule(hold.getId(), 1);
+                } else {
+                    inRows.add(hold.getId());
+                }
+                after = hold.getId();
+            }
+            if (!inRows.isEmpty()) {
+                inventoryRepository.releaseHolds(inRows);
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    /**
+     * @return true if the hold is on a hot item, and so tracked in memory
+     */
+    private boolean track(StockHold hold) {
+        if (!hotStock.manages(hold.getInventoryId())) {
+            return false;
+        }
+        hotHolds.put(hold.getId(), hold);
+        return true;
+    }
+
+    private long ticks(Duration delay) {
+        long tick = config.getTick().toNanos();
+        return Math.max(0, Math.ceilDiv(delay.toNanos(), tick));
+    }
+}
@@ -0,0 +1,232 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of hot stock changes, split into numbered segments ({@code segment-<n>.wal}).
+ * Each record is {@code [int length][byte type][item id][long delta]}, followed for hold records by
+ * the hold id and, when the hold is taken, its expiry. Callers append, then {@link #sync} until their
+ * record is on disk; concurrent callers share one {@code fsync} (group commit). Segments are rotated
+ * on every flush, so each closed segment holds exactly the changes of one flush.
+ */
+final class StockWriteAheadLog implements Closeable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".wal";
+
+    private static final byte STOCK = 0;
+    private static final byte HOLD_TAKEN = 1;
+    private static final byte HOLD_ENDED = 2;
+
+    private final Path directory;
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private long segment;
+
+    /**
+     * Bytes appended over the lifetime of this log, across segments.
+     */
+    private long appended;
+
+    /**
+     * Bytes known to be on disk; guarded by {@link #syncLock}.
+     */
+    private long durable;
+
+    StockWriteAheadLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Segments left on disk that are not being appended to, oldest first.
+     */
+    synchronized List<Long> closedSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .filter(number -> channel == null || number != segment)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Sums the deltas per item and nets out the holds taken and ended within the segment. A record cut
+     * short by a crash is ignored; it was never acknowledged.
+     */
+    Segment read(long number) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path(number)));
+        Segment result = new Segment(new HashMap<>(), new LinkedHashMap<>(), new HashSet<>());
+        while (in.remaining() >= Integer.BYTES) {
+            int length = in.getInt();
+            if (length < 0 || in.remaining() < length) {
+                break;
+            }
+            ByteBuffer record = in.slice(in.position(), length);
+            in.position(in.position() + length);
+            byte type = record.get();
+            String id = readString(record);
+            long delta = record.getLong();
+            result.deltas().merge(id, delta, Long::sum);
+            if (type == HOLD_TAKEN) {
+                String holdId = readString(record);
+                result.takenHolds().put(holdId, StockHold.builder()
+                        .id(holdId)
+                        .inventoryId(id)
+                        .quantity((int) -delta)
+                        .expiresAt(Instant.ofEpochMilli(record.getLong()))
+                        .build());
+            } else if (type == HOLD_ENDED) {
+                String holdId = readString(record);
+                if (result.takenHolds().remove(holdId) == null) {
+                    result.endedHolds().add(holdId);
+                }
+            }
+        }
+        return result;
+    }
+
+    void delete(long number) throws IOException {
+        Files.deleteIfExists(path(number));
+    }
+
+    synchronized void open(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(path(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return the position to pass to {@link #sync} to wait until this record is durable
+     */
+    long append(String id, long delta) throws IOException {
+        return append(STOCK, id, delta, null, 0);
+    }
+
+    /**
+     * Logs the units of a hold being taken, along with the hold itself, which is inserted when the
+     * segment is applied.
+     */
+    long appendHoldTaken(StockHold hold) throws IOException {
+        return append(HOLD_TAKEN, hold.getInventoryId(), -hold.getQuantity(), hold.getId(),
+                hold.getExpiresAt().toEpochMilli());
+    }
+
+    /**
+     * Logs the end of a hold, giving {@code delta} units back; its row is deleted when the segment is
+     * applied.
+     */
+    long appendHoldEnded(StockHold hold, long delta) throws IOException {
+        return append(HOLD_ENDED, hold.getInventoryId(), delta, hold.getId(), 0);
+    }
+
+    private synchronized long append(byte type, String id, long delta, String holdId, long expiresAt)
+            throws IOException {
+        byte[] item = id.getBytes(StandardCharsets.UTF_8);
+        byte[] hold = holdId == null ? new byte[0] : holdId.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + Integer.BYTES + item.length + Long.BYTES
+                + (type == STOCK ? 0 : Integer.BYTES + hold.length)
+                + (type == HOLD_TAKEN ? Long.BYTES : 0);
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + length)
+                .putInt(length)
+                .put(type)
+                .putInt(item.length)
+                .put(item)
+                .putLong(delta);
+        if (type != STOCK) {
+            record.putInt(hold.length).put(hold);
+        }
+        if (type == HOLD_TAKEN) {
+            record.putLong(expiresAt);
+        }
+        record.flip();
+        while (record.hasRemaining()) {
+            appended += channel.write(record);
+        }
+        return appended;
+    }
+
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (durable >= position) {
+                return;
+            }
+            // appends continue while forcing; rotate and close wait on syncLock, so the channel stays open
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = appended;
+                current = channel;
+            }
+            current.force(false);
+            durable = target;
+        }
+    }
+
+    /**
+     * Closes the current segment, with everything appended to it forced to disk, and starts the next.
+     */
+    void rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+                durable = appended;
+                open(segment + 1);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel != null) {
+                    channel.force(false);
+                    channel.close();
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The net effect of one segment.
+     *
+     * @param deltas      stock change per item, including the units of holds taken and ended
+     * @param takenHolds  holds taken and still outstanding at the end of the segment, by id
+     * @param endedHolds  holds taken in an earlier segment, or before the item was hot, that ended
+     */
+    record Segment(Map<String, Long> deltas, Map<String, StockHold> takenHolds, Set<String> endedHolds) {
+    }
+}
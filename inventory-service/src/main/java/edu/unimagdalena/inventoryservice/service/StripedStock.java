@@ -0,0 +1,73 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock of one hot item split across independent cells. A reservation takes units from a single
+ * cell with a CAS, so concurrent reservations mostly touch different cache lines; only when no
+ * cell holds enough on its own are the cells drained, summed and refilled under a lock. The total
+ * never goes below zero.
+ */
+final class StripedStock {
+
+    /**
+     * Longs between two cells, so that each cell sits on its own 64-byte cache line.
+     */
+    private static final int PADDING = 8;
+
+    private final int stripes;
+    private final AtomicLongArray cells;
+
+    StripedStock(long quantity, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        spread(quantity);
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    /**
+     * @return false, leaving the stock untouched, if fewer than {@code quantity} units are left
+     */
+    boolean tryReserve(long quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PADDING;
+            long current;
+            while ((current = cells.get(cell)) >= quantity) {
+                if (cells.compareAndSet(cell, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return reserveAcrossCells(quantity);
+    }
+
+    void release(long quantity) {
+        cells.getAndAdd(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    private synchronized boolean reserveAcrossCells(long quantity) {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        boolean reserved = total >= quantity;
+        spread(reserved ? total - quantity : total);
+        return reserved;
+    }
+
+    private void spread(long quantity) {
+        long share = quantity / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.getAndAdd(i * PADDING, i == 0 ? share + quantity % stripes : share);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package edu.unimagdalena.inventoryservice.benchmark;
+
+import edu.unimagdalena.commons.BlockingSchedulerConfig;
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.repository.InventoryRepository;
+import edu.unimagdalena.inventoryservice.service.HotStock;
+import edu.unimagdalena.inventoryservice.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures request latency percentiles of {@link InventoryService} on each
+ * {@link BlockingSchedulerConfig.Mode} while every repository call blocks for a fixed time, as it
+ * would behind a slow database. With more concurrent requests than bounded-elastic threads, the
+ * bounded-elastic tail grows with the queue while virtual threads keep it close to the DB latency.
+ * Run with {@code ./mvnw test -Dtest=BlockingSchedulerLoadTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BlockingSchedulerLoadTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int CONCURRENCY = 2_000;
+    private static final long DB_LATENCY_MS = 20;
+
+    @Test
+    void compareSchedulerModes() {
+        for (BlockingSchedulerConfig.Mode mode : BlockingSchedulerConfig.Mode.values()) {
+            run("warm-up " + mode, mode);
+        }
+        for (BlockingSchedulerConfig.Mode mode : BlockingSchedulerConfig.Mode.values()) {
+            run(mode.name(), mode);
+        }
+    }
+
+    private void run(String name, BlockingSchedulerConfig.Mode mode) {
+        InventoryRepository repository = mock(InventoryRepository.class);
+        when(repository.findById(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(DB_LATENCY_MS);
+            return Optional.of(new Inventory(invocation.getArgument(0), "Item", 1, 0L));
+        });
+        Scheduler scheduler = BlockingSchedulerConfig.create(mode);
+        InventoryService service = new InventoryService(repository, new IdGenerator(IdGenerator.Strategy.RANDOM), scheduler,
+                mock(HotStock.class));
+
+        long start = System.nanoTime();
+        List<Long> latencies = Flux.range(0, REQUESTS)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requested = System.nanoTime();
+                    return service.getInventoryItemById("item-" + i)
+                            .map(item -> (System.nanoTime() - requested) / 1_000_000);
+                }), CONCURRENCY)
+                .sort()
+                .collectList()
+                .block();
+        long totalMs = (System.nanoTime() - start) / 1_000_000;
+        scheduler.dispose();
+
+        System.out.printf("%-24s p50: %5d ms  p99: %5d ms  max: %5d ms  throughput: %8.0f req/s%n",
+                name, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                latencies.get(latencies.size() - 1), REQUESTS * 1000.0 / Math.max(1, totalMs));
+
+        assertThat(latencies).hasSize(REQUESTS);
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        return sorted.get((int) Math.ceil(p * sorted.size()) - 1);
+    }
+}
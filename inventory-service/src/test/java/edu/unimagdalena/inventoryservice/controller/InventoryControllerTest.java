@@ -1,21 +1,36 @@
 package edu.unimagdalena.inventoryservice.controller;
 
+import edu.unimagdalena.inventoryservice.config.ProductNameIndexInitializer;
+import edu.unimagdalena.inventoryservice.dto.HoldRequest;
+import edu.unimagdalena.inventoryservice.dto.StockLevel;
+import edu.unimagdalena.inventoryservice.dto.StockRequest;
 import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import edu.unimagdalena.inventoryservice.service.HotItemWriteException;
+import edu.unimagdalena.inventoryservice.service.InsufficientStockException;
 import edu.unimagdalena.inventoryservice.service.InventoryService;
+import edu.unimagdalena.inventoryservice.service.StockHoldService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(InventoryController.class)
@@ -24,6 +39,9 @@ public class InventoryControllerTest {
     @MockitoBean
     private InventoryService inventoryService;
 
+    @MockitoBean
+    private StockHoldService stockHoldService;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -166,6 +184,20 @@ public class InventoryControllerTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    void shouldAnswerConflictWhenUpdatingHotItem() {
+        // given
+        when(inventoryService.updateInventoryItem(eq("hot"), any(Inventory.class)))
+                .thenReturn(Mono.error(new HotItemWriteException("hot")));
+
+        // when & then
+        webTestClient.put().uri("/api/inventory/{id}", "hot")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Inventory.builder().productName("Laptop").quantity(1).build())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
     @Test
     void shouldDeleteInventoryItem() {
         // given
@@ -178,4 +210,192 @@ public class InventoryControllerTest {
                 .exchange()
                 .expectStatus().isNoContent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReserveStock() {
+        // given
+        when(inventoryService.reserveStock("item-1", 2)).thenReturn(Mono.just(new StockLevel("item-1", 8)));
+
+        // when & then
+        webTestClient.post().uri("/api/inventory/{id}/reserve", "item-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new StockRequest(2))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("item-1")
+                .jsonPath("$.quantity").isEqualTo(8);
+    }
+
+    @Test
+    void shouldAnswerConflictWhenStockIsInsufficient() {
+        // given
+        when(inventoryService.reserveStock(eq("item-1"), eq(50)))
+                .thenReturn(Mono.error(new InsufficientStockException("item-1", 50)));
+
+        // when & then
+        webTestClient.post().uri("/api/inventory/{id}/reserve", "item-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new StockRequest(50))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void shouldAnswerNotFoundWhenReleasingUnknownItem() {
+        // given
+        when(inventoryService.releaseStock(anyString(), eq(1))).thenReturn(Mono.empty());
+
+        // when & then
+        webTestClient.post().uri("/api/inventory/{id}/release", "missing")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new StockRequest(1))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldGetInventoryItemsByIds() {
+        // given
+        Inventory inventory = Inventory.builder()
+                .id("item-1")
+                .productName("Product 1")
+                .quantity(10)
+                .build();
+        when(inventoryService.getInventoryItemsByIds(List.of("item-1", "item-2"))).thenReturn(Flux.just(inventory));
+
+        // when & then
+        webTestClient.get().uri("/api/inventory?ids=item-1,item-2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Inventory.class)
+                .hasSize(1)
+                .contains(inventory);
+    }
+
+    @Test
+    void shouldLookUpInventoryItemsFromBody() {
+        // given
+        when(inventoryService.getInventoryItemsByIds(List.of("item-1"))).thenReturn(Flux.empty());
+
+        // when & then
+        webTestClient.post().uri("/api/inventory/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("item-1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Inventory.class)
+                .hasSize(0);
+    }
+
+    @Test
+    void shouldGetInventoryItemByProductName() {
+        // given
+        Inventory inventory = Inventory.builder()
+                .id("item-1")
+                .productName("Gaming Laptop")
+                .quantity(5)
+                .build();
+        when(inventoryService.getInventoryItemByProductName("Gaming Laptop")).thenReturn(Mono.just(inventory));
+
+        // when & then
+        webTestClient.get().uri("/api/inventory/by-product/{name}", "Gaming Laptop")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("item-1")
+                .jsonPath("$.quantity").isEqualTo(5);
+    }
+
+    @Test
+    void shouldGetInventoryItemsByProductNames() {
+        // given
+        Inventory inventory = Inventory.builder()
+                .id("item-1")
+                .productName("Laptop")
+                .quantity(5)
+                .build();
+        when(inventoryService.getInventoryItemsByProductNames(List.of("Laptop", "Mouse"))).thenReturn(Flux.just(inventory));
+
+        // when & then
+        webTestClient.get().uri("/api/inventory/by-product?names=Laptop,Mouse")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Inventory.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void shouldAnswerConflictForDuplicateProductName() {
+        // given
+        when(inventoryService.createInventoryItem(any(Inventory.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("duplicate product name",
+                        new ConstraintViolationException("duplicate key value violates unique constraint",
+                                new SQLException("duplicate key", "23505"), ProductNameIndexInitializer.INDEX_NAME))));
+
+        // when & then
+        webTestClient.post().uri("/api/inventory")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Inventory.builder().productName("Laptop").quantity(1).build())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void shouldNotReportOtherIntegrityViolationsAsDuplicates() {
+        // given
+        when(inventoryService.createInventoryItem(any(Inventory.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("null value in column \"quantity\"")));
+
+        // when & then
+        webTestClient.post().uri("/api/inventory")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Inventory.builder().productName("Laptop").build())
+                .exchange()
+                .expectStatus().is5xxServerError();
+    }
+
+    @Test
+    void shouldCreateHold() {
+        // given
+        StockHold hold = StockHold.builder()
+                .id("hold-1")
+                .inventoryId("item-1")
+                .quantity(2)
+                .expiresAt(Instant.parse("2030-01-01T00:10:00Z"))
+                .build();
+        when(stockHoldService.holdStock("item-1", 2, Duration.ofMinutes(10))).thenReturn(Mono.just(hold));
+
+        // when & then
+        webTestClient.post().uri("/api/inventory/{id}/holds", "item-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new HoldRequest(2, Duration.ofMinutes(10)))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("hold-1")
+                .jsonPath("$.inventoryId").isEqualTo("item-1");
+    }
+
+    @Test
+    void shouldAnswerNotFoundWhenConfirmingExpiredHold() {
+        // given
+        when(stockHoldService.confirmHold("hold-1")).thenReturn(Mono.just(false));
+
+        // when & then
+        webTestClient.post().uri("/api/inventory/holds/{holdId}/confirm", "hold-1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldReleaseHold() {
+        // given
+        when(stockHoldService.releaseHold("hold-1")).thenReturn(Mono.just(true));
+
+        // when & then
+        webTestClient.delete().uri("/api/inventory/holds/{holdId}", "hold-1")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+}
@@ -1,20 +1,29 @@
 package edu.unimagdalena.inventoryservice.repository;
 
 import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @Testcontainers
@@ -37,6 +46,12 @@ public class InventoryRepositoryTest {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void shouldSaveInventory() {
         // given
@@ -57,6 +72,30 @@ public class InventoryRepositoryTest {
         assertThat(savedInventory.getQuantity()).isEqualTo(10);
     }
 
+    @Test
+    void shouldInsertNewInventoryWithSingleStatement() {
+        // given
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Inventory inventory = Inventory.builder()
+                .id(UUID.randomUUID().toString())
+                .productName("Mouse")
+                .quantity(5)
+                .build();
+
+        // when
+        inventoryRepository.save(inventory);
+        entityManager.flush();
+
+        // then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
     @Test
     void shouldFindById() {
         // given
@@ -95,4 +134,170 @@ public class InventoryRepositoryTest {
         Optional<Inventory> deletedInventory = inventoryRepository.findById(id);
         assertThat(deletedInventory).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldUpdateWithVersionCheck() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder()
+                .id(id)
+                .productName("Webcam")
+                .quantity(8)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        Inventory changes = Inventory.builder()
+                .productName("Webcam HD")
+                .quantity(6)
+                .version(0L)
+                .build();
+
+        // when
+        Optional<Inventory> updated = inventoryRepository.updateReturning(id, changes);
+
+        // then
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getProductName()).isEqualTo("Webcam HD");
+        assertThat(updated.get().getVersion()).isEqualTo(1L);
+        entityManager.clear();
+        assertThatThrownBy(() -> inventoryRepository.updateReturning(id, changes))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void shouldRemoveByIdWithSingleStatement() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder()
+                .id(id)
+                .productName("Headset")
+                .quantity(3)
+                .build());
+        entityManager.flush();
+
+        // when
+        int removed = inventoryRepository.removeById(id);
+
+        // then
+        assertThat(removed).isEqualTo(1);
+        assertThat(inventoryRepository.removeById(id)).isZero();
+    }
+
+    @Test
+    void shouldReserveOnlyWhileStockLasts() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder()
+                .id(id)
+                .productName("Keyboard")
+                .quantity(5)
+                .build());
+        entityManager.flush();
+
+        // when / then
+        assertThat(inventoryRepository.reserve(id, 3)).contains(2);
+        assertThat(inventoryRepository.reserve(id, 3)).isEmpty();
+        assertThat(inventoryRepository.release(id, 1)).contains(3);
+        assertThat(inventoryRepository.reserve(id, 3)).contains(0);
+        assertThat(inventoryRepository.reserve("missing", 1)).isEmpty();
+        entityManager.clear();
+        assertThat(inventoryRepository.findById(id)).get()
+                .satisfies(item -> {
+                    assertThat(item.getQuantity()).isZero();
+                    assertThat(item.getVersion()).isEqualTo(3L);
+                });
+    }
+
+    @Test
+    void shouldFindAllByIdIn() {
+        // given
+        Inventory mouse = inventoryRepository.save(Inventory.builder()
+                .id(UUID.randomUUID().toString())
+                .productName("Mouse")
+                .quantity(4)
+                .build());
+        Inventory monitor = inventoryRepository.save(Inventory.builder()
+                .id(UUID.randomUUID().toString())
+                .productName("Monitor")
+                .quantity(2)
+                .build());
+        entityManager.flush();
+
+        // when
+        List<Inventory> found = inventoryRepository.findAllByIdIn(List.of(mouse.getId(), monitor.getId(), "missing"));
+
+        // then
+        assertThat(found).extracting(Inventory::getProductName).containsExactlyInAnyOrder("Mouse", "Monitor");
+    }
+
+    @Test
+    void shouldFindByProductName() {
+        // given
+        inventoryRepository.save(Inventory.builder()
+                .id(UUID.randomUUID().toString())
+                .productName("Tablet")
+                .quantity(7)
+                .build());
+        inventoryRepository.save(Inventory.builder()
+                .id(UUID.randomUUID().toString())
+                .productName("Stylus")
+                .quantity(1)
+                .build());
+        entityManager.flush();
+
+        // when / then
+        assertThat(inventoryRepository.findByProductName("Tablet")).get()
+                .extracting(Inventory::getQuantity).isEqualTo(7);
+        assertThat(inventoryRepository.findByProductName("Phone")).isEmpty();
+        assertThat(inventoryRepository.findAllByProductNameIn(List.of("Tablet", "Stylus", "Phone")))
+                .extracting(Inventory::getProductName)
+                .containsExactlyInAnyOrder("Tablet", "Stylus");
+    }
+
+    @Test
+    void shouldReleaseHoldsOnce() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder().id(id).productName("Headset").quantity(5).build());
+        for (String hold : List.of("hold-1", "hold-2")) {
+            stockHoldRepository.save(StockHold.builder()
+                    .id(hold)
+                    .inventoryId(id)
+                    .quantity(2)
+                    .expiresAt(Instant.now())
+                    .build());
+        }
+        entityManager.flush();
+
+        // when
+        Map<String, Long> released = inventoryRepository.releaseHolds(List.of("hold-1", "hold-2", "missing"));
+        Map<String, Long> again = inventoryRepository.releaseHolds(List.of("hold-1"));
+        entityManager.clear();
+
+        // then
+        assertThat(released).isEqualTo(Map.of(id, 4L));
+        assertThat(again).isEmpty();
+        assertThat(inventoryRepository.findById(id)).get().extracting(Inventory::getQuantity).isEqualTo(9);
+        assertThat(stockHoldRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldRecordHoldOnlyWhenUnitsAreTaken() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder().id(id).productName("Webcam").quantity(3).build());
+        entityManager.flush();
+
+        // when
+        Optional<Integer> held = inventoryRepository.reserveHold(StockHold.builder()
+                .id("hold-1").inventoryId(id).quantity(2).expiresAt(Instant.now()).build());
+        Optional<Integer> refused = inventoryRepository.reserveHold(StockHold.builder()
+                .id("hold-2").inventoryId(id).quantity(2).expiresAt(Instant.now()).build());
+        entityManager.clear();
+
+        // then
+        assertThat(held).contains(1);
+        assertThat(refused).isEmpty();
+        assertThat(stockHoldRepository.findAll()).extracting(StockHold::getId).containsExactly("hold-1");
+    }
+}
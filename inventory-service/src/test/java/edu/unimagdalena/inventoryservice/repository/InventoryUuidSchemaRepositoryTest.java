@@ -0,0 +1,106 @@
+package edu.unimagdalena.inventoryservice.repository;
+
+import edu.unimagdalena.inventoryservice.entity.Inventory;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native statements against {@code inventory.id} migrated to {@code uuid} by
+ * {@code db/migration/inventory-uuid-primary-key.sql}, with {@code stringtype=unspecified} as the
+ * migration asks. The migration runs inside each test's transaction and is rolled back with it.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class InventoryUuidSchemaRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("inventory-uuid-test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgreSQLContainer.getJdbcUrl() + "&stringtype=unspecified");
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+    }
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void migrate() throws IOException {
+        jdbcTemplate.execute(new ClassPathResource("db/migration/inventory-uuid-primary-key.sql")
+                .getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReleaseHoldsIntoUuidKeyedItems() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder().id(id).productName("Headset").quantity(5).build());
+        entityManager.flush();
+        Optional<Integer> held = inventoryRepository.reserveHold(StockHold.builder()
+                .id("hold-1").inventoryId(id).quantity(2).expiresAt(Instant.now()).build());
+
+        // when
+        Map<String, Long> released = inventoryRepository.releaseHolds(List.of("hold-1"));
+        entityManager.clear();
+
+        // then
+        assertThat(held).contains(3);
+        assertThat(released).isEqualTo(Map.of(id, 2L));
+        assertThat(inventoryRepository.findById(id)).get().extracting(Inventory::getQuantity).isEqualTo(5);
+        assertThat(stockHoldRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldReserveAndUpdateUuidKeyedItems() {
+        // given
+        String id = UUID.randomUUID().toString();
+        inventoryRepository.save(Inventory.builder().id(id).productName("Webcam").quantity(4).build());
+        entityManager.flush();
+
+        // when
+        Optional<Integer> left = inventoryRepository.reserve(id, 3);
+        Optional<Inventory> updated = inventoryRepository.updateReturning(id,
+                Inventory.builder().productName("Webcam HD").quantity(10).build());
+
+        // then
+        assertThat(left).contains(1);
+        assertThat(updated).get().extracting(Inventory::getProductName).isEqualTo("Webcam HD");
+    }
+}
@@ -0,0 +1,46 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HoldWheelTest {
+
+    @Test
+    void shouldExpireHoldOnItsTick() {
+        HoldWheel wheel = new HoldWheel(8);
+        wheel.schedule("hold-1", 3);
+
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).containsExactly("hold-1");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldKeepHoldsDueOnLaterTurnsOfTheWheel() {
+        HoldWheel wheel = new HoldWheel(4);
+        wheel.schedule("soon", 2);
+        wheel.schedule("later", 6);
+
+        List<String> expired = new ArrayList<>();
+        for (int tick = 1; tick <= 5; tick++) {
+            expired.addAll(wheel.advance());
+        }
+        assertThat(expired).containsExactly("soon");
+        assertThat(wheel.advance()).containsExactly("later");
+    }
+
+    @Test
+    void shouldNotExpireCancelledHold() {
+        HoldWheel wheel = new HoldWheel(8);
+        wheel.schedule("hold-1", 1);
+
+        assertThat(wheel.cancel("hold-1")).isTrue();
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.cancel("hold-1")).isFalse();
+    }
+}
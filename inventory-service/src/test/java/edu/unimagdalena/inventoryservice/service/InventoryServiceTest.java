@@ -1,22 +1,31 @@
 package edu.unimagdalena.inventoryservice.service;
 
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.inventoryservice.dto.StockLevel;
 import edu.unimagdalena.inventoryservice.entity.Inventory;
 import edu.unimagdalena.inventoryservice.repository.InventoryRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +34,15 @@ public class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Spy
+    private IdGenerator idGenerator = new IdGenerator(IdGenerator.Strategy.UUID_V7);
+
+    @Spy
+    private Scheduler blockingScheduler = Schedulers.immediate();
+
+    @Mock
+    private HotStock hotStock;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -137,8 +155,7 @@ public class InventoryServiceTest {
                 .quantity(25)
                 .build();
 
-        when(inventoryRepository.existsById(id)).thenReturn(true);
-        when(inventoryRepository.save(any(Inventory.class))).thenReturn(updatedInventory);
+        when(inventoryRepository.updateReturning(id, inventory)).thenReturn(Optional.of(updatedInventory));
 
         // when
         Mono<Inventory> result = inventoryService.updateInventoryItem(id, inventory);
@@ -147,8 +164,9 @@ public class InventoryServiceTest {
         StepVerifier.create(result)
                 .expectNext(updatedInventory)
                 .verifyComplete();
-        verify(inventoryRepository, times(1)).existsById(id);
-        verify(inventoryRepository, times(1)).save(any(Inventory.class));
+        verify(inventoryRepository, times(1)).updateReturning(id, inventory);
+        verify(inventoryRepository, never()).findById(any());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
     @Test
@@ -160,7 +178,7 @@ public class InventoryServiceTest {
                 .quantity(40)
                 .build();
 
-        when(inventoryRepository.existsById(id)).thenReturn(false);
+        when(inventoryRepository.updateReturning(id, inventory)).thenReturn(Optional.empty());
 
         // when
         Mono<Inventory> result = inventoryService.updateInventoryItem(id, inventory);
@@ -168,15 +186,14 @@ public class InventoryServiceTest {
         // then
         StepVerifier.create(result)
                 .verifyComplete();
-        verify(inventoryRepository, times(1)).existsById(id);
-        verify(inventoryRepository, never()).save(any(Inventory.class));
+        verify(inventoryRepository, times(1)).updateReturning(id, inventory);
     }
 
     @Test
     void shouldDeleteInventoryItem() {
         // given
         String id = UUID.randomUUID().toString();
-        doNothing().when(inventoryRepository).deleteById(id);
+        when(inventoryRepository.removeById(id)).thenReturn(1);
 
         // when
         Mono<Void> result = inventoryService.deleteInventoryItem(id);
@@ -184,6 +201,151 @@ public class InventoryServiceTest {
         // then
         StepVerifier.create(result)
                 .verifyComplete();
-        verify(inventoryRepository, times(1)).deleteById(id);
+        verify(inventoryRepository, times(1)).removeById(id);
+        verify(inventoryRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void shouldReserveStock() {
+        // given
+        String id = UUID.randomUUID().toString();
+        when(inventoryRepository.reserve(id, 2)).thenReturn(Optional.of(8));
+
+        // when & then
+        StepVerifier.create(inventoryService.reserveStock(id, 2))
+                .expectNext(new StockLevel(id, 8))
+                .verifyComplete();
+
+        verify(inventoryRepository, never()).findById(any());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void shouldFailReservationWhenStockIsInsufficient() {
+        // given
+        String id = UUID.randomUUID().toString();
+        when(inventoryRepository.reserve(id, 20)).thenReturn(Optional.empty());
+        when(inventoryRepository.existsById(id)).thenReturn(true);
+
+        // when & then
+        StepVerifier.create(inventoryService.reserveStock(id, 20))
+                .expectError(InsufficientStockException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldReturnEmptyMonoWhenReservingUnknownItem() {
+        // given
+        String id = UUID.randomUUID().toString();
+        when(inventoryRepository.reserve(id, 1)).thenReturn(Optional.empty());
+        when(inventoryRepository.existsById(id)).thenReturn(false);
+
+        // when & then
+        StepVerifier.create(inventoryService.reserveStock(id, 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReleaseStock() {
+        // given
+        String id = UUID.randomUUID().toString();
+        when(inventoryRepository.release(id, 2)).thenReturn(Optional.of(12));
+
+        // when & then
+        StepVerifier.create(inventoryService.releaseStock(id, 2))
+                .expectNext(new StockLevel(id, 12))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldLookUpItemsInChunks() {
+        // given
+        List<String> ids = IntStream.range(0, InventoryService.LOOKUP_CHUNK_SIZE * 2 + 1)
+                .mapToObj(i -> "item-" + i)
+                .toList();
+        Inventory first = Inventory.builder().id("item-0").productName("Product 0").quantity(1).build();
+        when(inventoryRepository.findAllByIdIn(anyList())).thenReturn(List.of(first), List.of(), List.of());
+
+        // when & then
+        StepVerifier.create(inventoryService.getInventoryItemsByIds(ids))
+                .expectNext(first)
+                .verifyComplete();
+
+        verify(inventoryRepository, times(3)).findAllByIdIn(anyList());
+        verify(inventoryRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldRejectEmptyLookup() {
+        StepVerifier.create(inventoryService.getInventoryItemsByIds(List.of()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldGetInventoryItemByProductName() {
+        // given
+        Inventory inventory = Inventory.builder().id("item-1").productName("Laptop").quantity(3).build();
+        when(inventoryRepository.findByProductName("Laptop")).thenReturn(Optional.of(inventory));
+
+        // when & then
+        StepVerifier.create(inventoryService.getInventoryItemByProductName("Laptop"))
+                .expectNext(inventory)
+                .verifyComplete();
+
+        verify(inventoryRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldLookUpItemsByDistinctProductNames() {
+        // given
+        Inventory laptop = Inventory.builder().id("item-1").productName("Laptop").quantity(3).build();
+        when(inventoryRepository.findAllByProductNameIn(List.of("Laptop", "Mouse"))).thenReturn(List.of(laptop));
+
+        // when & then
+        StepVerifier.create(inventoryService.getInventoryItemsByProductNames(List.of("Laptop", "Mouse", "Laptop")))
+                .expectNext(laptop)
+                .verifyComplete();
+
+        verify(inventoryRepository, times(1)).findAllByProductNameIn(anyList());
+    }
+
+    @Test
+    void shouldReserveHotItemFromMemory() {
+        // given
+        when(hotStock.manages("hot")).thenReturn(true);
+        when(hotStock.reserve("hot", 2)).thenReturn(OptionalLong.of(98));
+
+        // when & then
+        StepVerifier.create(inventoryService.reserveStock("hot", 2))
+                .expectNext(new StockLevel("hot", 98))
+                .verifyComplete();
+
+        verify(inventoryRepository, never()).reserve(any(), anyInt());
+    }
+
+    @Test
+    void shouldFailHotReservationWhenStockIsInsufficient() {
+        // given
+        when(hotStock.manages("hot")).thenReturn(true);
+        when(hotStock.reserve("hot", 5)).thenReturn(OptionalLong.empty());
+
+        // when & then
+        StepVerifier.create(inventoryService.reserveStock("hot", 5))
+                .expectError(InsufficientStockException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectUpdateOfHotItem() {
+        // given
+        when(hotStock.manages("hot")).thenReturn(true);
+
+        // when & then
+        StepVerifier.create(inventoryService.updateInventoryItem("hot", Inventory.builder().quantity(1).build()))
+                .expectError(HotItemWriteException.class)
+                .verify();
+
+        verify(inventoryRepository, never()).updateReturning(any(), any());
     }
-}
\ No newline at end of file
+}
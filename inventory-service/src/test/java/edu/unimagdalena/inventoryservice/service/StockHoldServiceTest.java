@@ -0,0 +1,200 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.inventoryservice.config.InventoryProperties;
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import edu.unimagdalena.inventoryservice.repository.InventoryRepository;
+import edu.unimagdalena.inventoryservice.repository.StockHoldRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHoldServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private StockHoldRepository stockHoldRepository;
+
+    @Mock
+    private HotStock hotStock;
+
+    private StockHoldService stockHoldService;
+
+    @BeforeEach
+    void setUp() {
+        stockHoldService = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockHoldService.destroy();
+    }
+
+    private StockHoldService newService() {
+        InventoryProperties properties = new InventoryProperties();
+        // expiry is driven by calling expire() directly
+        properties.getHolds().setTick(Duration.ofHours(1));
+        return new StockHoldService(inventoryRepository, stockHoldRepository, hotStock,
+                new IdGenerator(IdGenerator.Strategy.UUID_V7), Schedulers.immediate(), properties);
+    }
+
+    @Test
+    void shouldTakeUnitsAndRecordHoldInOneStatement() {
+        // given
+        when(inventoryRepository.reserveHold(any(StockHold.class))).thenReturn(Optional.of(8));
+
+        // when & then
+        StepVerifier.create(stockHoldService.holdStock("item-1", 2, Duration.ofMinutes(5)))
+                .expectNextMatches(hold -> hold.getId() != null
+                        && hold.getInventoryId().equals("item-1")
+                        && hold.getQuantity() == 2)
+                .verifyComplete();
+
+        verify(stockHoldRepository, never()).save(any(StockHold.class));
+    }
+
+    @Test
+    void shouldFailHoldWhenStockIsInsufficient() {
+        // given
+        when(inventoryRepository.reserveHold(any(StockHold.class))).thenReturn(Optional.empty());
+        when(inventoryRepository.existsById("item-1")).thenReturn(true);
+
+        // when & then
+        StepVerifier.create(stockHoldService.holdStock("item-1", 20, Duration.ofMinutes(5)))
+                .expectError(InsufficientStockException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectTtlAboveMaximum() {
+        StepVerifier.create(stockHoldService.holdStock("item-1", 2, Duration.ofDays(1)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(inventoryRepository, never()).reserveHold(any());
+    }
+
+    @Test
+    void shouldReleaseExpiredHoldsInOneBatch() {
+        // given
+        when(inventoryRepository.reserveHold(any(StockHold.class))).thenReturn(Optional.of(8));
+        stockHoldService.holdStock("item-1", 1, Duration.ofMinutes(30)).block();
+        stockHoldService.holdStock("item-1", 2, Duration.ofMinutes(30)).block();
+
+        // when
+        stockHoldService.expire();
+
+        // then
+        verify(inventoryRepository, times(1)).releaseHolds(argThat(holds -> holds.size() == 2));
+    }
+
+    @Test
+    void shouldRetryExpiredHoldsWhoseReleaseFailed() {
+        // given
+        when(inventoryRepository.reserveHold(any(StockHold.class))).thenReturn(Optional.of(8));
+        stockHoldService.holdStock("item-1", 1, Duration.ofMinutes(30)).block();
+        when(inventoryRepository.releaseHolds(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(Map.of("item-1", 1L));
+
+        // when
+        stockHoldService.expire();
+        stockHoldService.expire();
+
+        // then
+        verify(inventoryRepository, times(2)).releaseHolds(anyCollection());
+    }
+
+    @Test
+    void shouldNotReleaseConfirmedHold() {
+        // given
+        when(inventoryRepository.reserveHold(any(StockHold.class))).thenReturn(Optional.of(9));
+        StockHold hold = stockHoldService.holdStock("item-1", 1, Duration.ofMinutes(30)).block();
+        when(stockHoldRepository.removeById(hold.getId())).thenReturn(1);
+
+        // when & then
+        StepVerifier.create(stockHoldService.confirmHold(hold.getId()))
+                .expectNext(true)
+                .verifyComplete();
+        stockHoldService.expire();
+        verify(inventoryRepository, never()).releaseHolds(anyCollection());
+    }
+
+    @Test
+    void shouldLogHotHoldsAndEndThemThroughHotStock() {
+        // given
+        when(hotStock.manages("hot")).thenReturn(true);
+        when(hotStock.reserveHold(any(StockHold.class))).thenReturn(OptionalLong.of(96));
+        StockHold hold = stockHoldService.holdStock("hot", 4, Duration.ofMinutes(30)).block();
+
+        // when
+        stockHoldService.expire();
+
+        // then
+        verify(hotStock).endHold(hold, true);
+        verify(inventoryRepository, never()).reserveHold(any());
+        verify(inventoryRepository, never()).releaseHolds(anyCollection());
+    }
+
+    @Test
+    void shouldKeepHotHoldWhenEndingItFails() {
+        // given
+        when(hotStock.manages("hot")).thenReturn(true);
+        when(hotStock.reserveHold(any(StockHold.class))).thenReturn(OptionalLong.of(96));
+        StockHold hold = stockHoldService.holdStock("hot", 4, Duration.ofMinutes(30)).block();
+        doThrow(new UncheckedIOException(new IOException("disk full"))).doNothing()
+                .when(hotStock).endHold(hold, true);
+
+        // when & then
+        StepVerifier.create(stockHoldService.releaseHold(hold.getId()))
+                .expectError(UncheckedIOException.class)
+                .verify();
+        StepVerifier.create(stockHoldService.releaseHold(hold.getId()))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldResumeRunningHoldsAndReleaseExpiredOnesOnStartup() {
+        // given
+        StockHold running = StockHold.builder().id("hold-1").inventoryId("item-1").quantity(1)
+                .expiresAt(Instant.now().plus(Duration.ofMinutes(30))).build();
+        StockHold expired = StockHold.builder().id("hold-2").inventoryId("item-1").quantity(2)
+                .expiresAt(Instant.now().minus(Duration.ofMinutes(30))).build();
+        when(stockHoldRepository.findByExpiresAtAfterAndIdGreaterThanOrderById(any(), eq(""), any()))
+                .thenReturn(List.of(running));
+        when(stockHoldRepository.findByExpiresAtLessThanEqualAndIdGreaterThanOrderById(any(), eq(""), any()))
+                .thenReturn(List.of(expired));
+
+        // when
+        StockHoldService resumed = newService();
+        resumed.expire();
+        resumed.destroy();
+
+        // then
+        verify(inventoryRepository).releaseHolds(List.of("hold-2"));
+        verify(inventoryRepository).releaseHolds(List.of("hold-1"));
+    }
+}
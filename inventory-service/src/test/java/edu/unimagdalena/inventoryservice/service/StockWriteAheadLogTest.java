@@ -0,0 +1,71 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import edu.unimagdalena.inventoryservice.entity.StockHold;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StockWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldSumDeltasPerItemOfClosedSegment() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.open(1);
+            wal.sync(wal.append("a", -2));
+            wal.sync(wal.append("b", -1));
+            wal.sync(wal.append("a", 1));
+            wal.rotate();
+
+            assertThat(wal.closedSegments()).containsExactly(1L);
+            assertThat(wal.read(1).deltas()).isEqualTo(Map.of("a", -1L, "b", -1L));
+        }
+    }
+
+    @Test
+    void shouldIgnoreRecordTornByCrash() throws IOException {
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.open(7);
+            wal.sync(wal.append("a", -2));
+        }
+        Files.write(directory.resolve("segment-7.wal"), new byte[]{0, 0, 0, 20, 1, 'a'}, StandardOpenOption.APPEND);
+
+        try (StockWriteAheadLog recovered = new StockWriteAheadLog(directory)) {
+            assertThat(recovered.closedSegments()).containsExactly(7L);
+            assertThat(recovered.read(7).deltas()).isEqualTo(Map.of("a", -2L));
+        }
+    }
+
+    @Test
+    void shouldNetOutHoldsTakenAndEndedInSegment() throws IOException {
+        StockHold kept = StockHold.builder().id("hold-1").inventoryId("a").quantity(2)
+                .expiresAt(Instant.parse("2030-01-01T00:00:00Z")).build();
+        StockHold released = StockHold.builder().id("hold-2").inventoryId("a").quantity(3)
+                .expiresAt(Instant.parse("2030-01-01T00:00:00Z")).build();
+        StockHold older = StockHold.builder().id("hold-0").inventoryId("a").quantity(1).build();
+        try (StockWriteAheadLog wal = new StockWriteAheadLog(directory)) {
+            wal.open(1);
+            wal.sync(wal.appendHoldTaken(kept));
+            wal.sync(wal.appendHoldTaken(released));
+            wal.sync(wal.appendHoldEnded(released, 3));
+            wal.sync(wal.appendHoldEnded(older, 0));
+            wal.rotate();
+
+            StockWriteAheadLog.Segment segment = wal.read(1);
+            assertThat(segment.deltas()).isEqualTo(Map.of("a", -2L));
+            assertThat(segment.takenHolds()).containsOnlyKeys("hold-1");
+            assertThat(segment.takenHolds().get("hold-1")).isEqualTo(kept);
+            assertThat(segment.endedHolds()).containsExactly("hold-0");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package edu.unimagdalena.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedStockTest {
+
+    @Test
+    void shouldReserveAcrossCellsWhenNoSingleCellHasEnough() {
+        StripedStock stock = new StripedStock(10, 4);
+
+        assertThat(stock.tryReserve(9)).isTrue();
+        assertThat(stock.available()).isEqualTo(1);
+        assertThat(stock.tryReserve(2)).isFalse();
+        assertThat(stock.available()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnReleasedUnits() {
+        StripedStock stock = new StripedStock(0, 4);
+
+        stock.release(3);
+
+        assertThat(stock.tryReserve(3)).isTrue();
+        assertThat(stock.available()).isZero();
+    }
+
+    @Test
+    void shouldNeverOversellUnderContention() throws Exception {
+        StripedStock stock = new StripedStock(1000, 8);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            var futures = IntStream.range(0, 16)
+                    .mapToObj(thread -> executor.submit(() -> {
+                        for (int i = 0; i < 500; i++) {
+                            if (stock.tryReserve(1)) {
+                                reserved.incrementAndGet();
+                            }
+                        }
+                    }))
+                    .toList();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(reserved.get()).isEqualTo(1000);
+        assertThat(stock.available()).isZero();
+    }
+}
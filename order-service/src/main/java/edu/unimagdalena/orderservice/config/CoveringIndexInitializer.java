@@ -0,0 +1,45 @@
+package edu.unimagdalena.orderservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates an index on {@code (date, id)} that also carries every other column of {@code orders},
+ * so range and page queries can be answered by an index-only scan without visiting the heap.
+ * Built concurrently so that writes are not blocked while it is created, and only with
+ * {@code order.index.covering}.
+ * <p>
+ * A concurrent build that fails leaves an invalid index behind, which {@code IF NOT EXISTS} would
+ * skip on every later start; such an index is dropped and rebuilt.
+ */
+@Component
+@RequiredArgsConstructor
+public class CoveringIndexInitializer implements ApplicationRunner {
+
+    public static final String INDEX_NAME = "idx_orders_date_id_covering";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderProperties orderProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!orderProperties.getIndex().isCovering()) {
+            return;
+        }
+        List<Boolean> valid = jdbcTemplate.queryForList("SELECT i.indisvalid FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?", Boolean.class, INDEX_NAME);
+        if (!valid.isEmpty() && valid.get(0)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME);
+        }
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX_NAME
+                + " ON orders (date, id) INCLUDE (product_name, quantity, price, version)");
+    }
+}
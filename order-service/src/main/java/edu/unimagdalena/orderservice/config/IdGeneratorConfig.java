@@ -0,0 +1,14 @@
+package edu.unimagdalena.orderservice.config;
+
+import edu.unimagdalena.commons.IdGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator idGenerator(OrderProperties orderProperties) {
+        return new IdGenerator(orderProperties.getId().getStrategy());
+    }
+}
@@ -0,0 +1,114 @@
+package edu.unimagdalena.orderservice.config;
+
+import edu.unimagdalena.commons.IdGenerator;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "order")
+public class OrderProperties {
+
+    private final Pagination pagination = new Pagination();
+
+    private final Index index = new Index();
+
+    private final Batch batch = new Batch();
+
+    private final Id id = new Id();
+
+    private final Changes changes = new Changes();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final Rollups rollups = new Rollups();
+
+    @Data
+    public static class Pagination {
+        /**
+         * Rows fetched per keyset query when streaming the whole table.
+         */
+        private int streamPageSize = 500;
+
+        /**
+         * Upper bound for the {@code limit} of a single cursor page.
+         */
+        private int maxLimit = 1000;
+    }
+
+    @Data
+    public static class Index {
+        /**
+         * Also build {@code idx_orders_date_id_covering}, which carries every column of {@code orders}
+         * so the list queries are answered by index-only scans.
+         */
+        private boolean covering = false;
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Orders committed per transaction by POST /api/orders/batch.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Id {
+        /**
+         * How primary keys of new orders are generated.
+         */
+        private IdGenerator.Strategy strategy = IdGenerator.Strategy.RANDOM;
+
+        /**
+         * Set once {@code orders.id} has been migrated to a native {@code uuid} column
+         * (see {@code db/migration/orders-uuid-primary-key.sql}); the R2DBC store then binds ids as UUIDs.
+         */
+        private boolean nativeUuid = false;
+    }
+
+    @Data
+    public static class Changes {
+        /**
+         * Most recent changes kept in memory for clients resuming GET /api/orders/changes.
+         */
+        private int replaySize = 1000;
+
+        /**
+         * Interval between SSE keep-alive comments, so idle connections are not closed by proxies.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+    }
+
+    @Data
+    public static class WriteBehind {
+        /**
+         * Queue POST /api/orders and commit the queued orders in groups instead of one transaction each.
+         */
+        private boolean enabled = false;
+
+        /**
+         * A group is committed as soon as it holds this many orders...
+         */
+        private int maxBatch = 256;
+
+        /**
+         * ...or when its first order has waited this long.
+         */
+        private Duration maxDelay = Duration.ofMillis(5);
+
+        /**
+         * Orders that may wait for a commit; beyond it new orders are rejected.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Rollups {
+        /**
+         * How often the deltas appended by the order triggers are folded into {@code order_rollups}.
+         */
+        private Duration foldInterval = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,114 @@
+package edu.unimagdalena.orderservice.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Installs the {@code order_rollups} table and the statement-level triggers that keep it in sync
+ * with {@code orders}. The triggers run inside the writing transaction, so every insert, update and
+ * delete, whether it comes from JPA, R2DBC or a batch, commits together with its rollup delta.
+ * <p>
+ * The triggers only append their deltas to {@code order_rollup_deltas}; they never update a rollup
+ * row, so concurrent order writes for the same product and hour do not queue on its row lock. The
+ * deltas are folded into {@code order_rollups} in the background by
+ * {@link edu.unimagdalena.orderservice.service.OrderRollupFolder}, and reads add the ones not folded yet.
+ * <p>
+ * {@code orders} is only locked against writes when the triggers are missing: the first time the
+ * rollups are installed it is backfilled under that lock, so no change is missed or counted twice.
+ * Later starts only replace the trigger function, which takes no lock on {@code orders}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class OrderRollupInitializer implements ApplicationRunner {
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE order_rollups (
+                bucket       timestamp    NOT NULL,
+                product_name varchar(255) NOT NULL,
+                revenue      numeric      NOT NULL DEFAULT 0,
+                units        bigint       NOT NULL DEFAULT 0,
+                PRIMARY KEY (bucket, product_name)
+            )""";
+
+    private static final String CREATE_DELTAS_TABLE = """
+            CREATE TABLE IF NOT EXISTS order_rollup_deltas (
+                bucket       timestamp    NOT NULL,
+                product_name varchar(255) NOT NULL,
+                revenue      numeric      NOT NULL,
+                units        bigint       NOT NULL
+            )""";
+
+    private static final String CREATE_FUNCTION = """
+            CREATE OR REPLACE FUNCTION order_rollups_apply() RETURNS trigger AS $$
+            BEGIN
+                IF TG_OP <> 'DELETE' THEN
+                    INSERT INTO order_rollup_deltas (bucket, product_name, revenue, units)
+                    SELECT date_trunc('hour', date), coalesce(product_name, ''),
+                           sum(coalesce(price * quantity, 0)), sum(coalesce(quantity, 0))
+                    FROM new_rows GROUP BY 1, 2;
+                END IF;
+                IF TG_OP <> 'INSERT' THEN
+                    INSERT INTO order_rollup_deltas (bucket, product_name, revenue, units)
+                    SELECT date_trunc('hour', date), coalesce(product_name, ''),
+                           -sum(coalesce(price * quantity, 0)), -sum(coalesce(quantity, 0))
+                    FROM old_rows GROUP BY 1, 2;
+                END IF;
+                RETURN NULL;
+            END
+            $$ LANGUAGE plpgsql""";
+
+    private static final String INSTALLED = """
+            SELECT to_regclass('order_rollups') IS NOT NULL AND (
+                SELECT count(*) FROM pg_trigger WHERE tgrelid = to_regclass('orders')
+                AND tgname IN ('orders_rollup_insert', 'orders_rollup_update', 'orders_rollup_delete')) = 3""";
+
+    private static final String[] CREATE_TRIGGERS = {
+            "CREATE OR REPLACE TRIGGER orders_rollup_insert AFTER INSERT ON orders"
+                    + " REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION order_rollups_apply()",
+            "CREATE OR REPLACE TRIGGER orders_rollup_update AFTER UPDATE ON orders"
+                    + " REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows"
+                    + " FOR EACH STATEMENT EXECUTE FUNCTION order_rollups_apply()",
+            "CREATE OR REPLACE TRIGGER orders_rollup_delete AFTER DELETE ON orders"
+                    + " REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION order_rollups_apply()"
+    };
+
+    private static final String BACKFILL = """
+            INSERT INTO order_rollups (bucket, product_name, revenue, units)
+            SELECT date_trunc('hour', date), coalesce(product_name, ''),
+                   sum(coalesce(price * quantity, 0)), sum(coalesce(quantity, 0))
+            FROM orders GROUP BY 1, 2""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        jdbcTemplate.execute(CREATE_DELTAS_TABLE);
+        jdbcTemplate.execute(CREATE_FUNCTION);
+        if (jdbcTemplate.queryForObject(INSTALLED, Boolean.class)) {
+            return;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE orders IN SHARE ROW EXCLUSIVE MODE");
+            boolean created = jdbcTemplate.queryForObject(
+                    "SELECT to_regclass('order_rollups') IS NULL", Boolean.class);
+            if (created) {
+                jdbcTemplate.execute(CREATE_TABLE);
+            }
+            for (String trigger : CREATE_TRIGGERS) {
+                jdbcTemplate.execute(trigger);
+            }
+            if (created) {
+                jdbcTemplate.execute(BACKFILL);
+            }
+        });
+    }
+}
@@ -1,27 +1,79 @@
 package edu.unimagdalena.orderservice.controller;
 
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.BatchItemResult;
+import edu.unimagdalena.orderservice.dto.OrderChange;
+import edu.unimagdalena.orderservice.dto.OrderPage;
+import edu.unimagdalena.orderservice.dto.OrderStats;
 import edu.unimagdalena.orderservice.entity.Order;
 import edu.unimagdalena.orderservice.service.OrderService;
+import edu.unimagdalena.orderservice.service.OrderStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderStatsService orderStatsService;
+    private final OrderProperties orderProperties;
 
-    @GetMapping
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
     public Flux<Order> getAllOrders() {
         return orderService.getAllOrders();
     }
 
+    @GetMapping(params = "limit")
+    public Mono<OrderPage> getOrdersPage(@RequestParam(required = false) String cursor, @RequestParam int limit) {
+        return orderService.getOrdersPage(cursor, limit);
+    }
+
+    @GetMapping(params = {"from", "to"}, produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Order> getOrdersBetween(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderService.getOrdersBetween(from, to);
+    }
+
+    @GetMapping("/stats")
+    public Flux<OrderStats> getStats(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                     @RequestParam(defaultValue = "hour") String bucket) {
+        return orderStatsService.getStats(from, to, bucket);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderChange>> streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Flux<ServerSentEvent<OrderChange>> changes = orderService.getChanges(since != null ? since : lastEventId)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(Long.toString(change.offset()))
+                        .event(change.type().name())
+                        .build());
+        Flux<ServerSentEvent<OrderChange>> heartbeat = Flux.interval(orderProperties.getChanges().getHeartbeat())
+                .map(tick -> ServerSentEvent.<OrderChange>builder().comment("keep-alive").build());
+        return Flux.merge(changes, heartbeat);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderChange> getChanges(@RequestParam(required = false) Long since) {
+        return orderService.getChanges(since);
+    }
+
     @GetMapping("/{id}")
     public Mono<ResponseEntity<Order>> getOrderById(@PathVariable String id) {
         return orderService.getOrderById(id)
@@ -35,6 +87,13 @@ public class OrderController {
         return orderService.createOrder(order);
     }
 
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchItemResult> createOrders(@RequestBody Flux<Order> orders) {
+        return orderService.createOrders(orders);
+    }
+
     @PutMapping("/{id}")
     public Mono<Order> updateOrder(@PathVariable String id, @RequestBody Order order) {
         return orderService.updateOrder(id, order);
@@ -45,4 +104,19 @@ public class OrderController {
     public Mono<Void> deleteOrder(@PathVariable String id){
         return orderService.deleteOrder(id);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleOverload(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
 }
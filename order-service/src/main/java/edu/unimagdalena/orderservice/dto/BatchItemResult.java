@@ -0,0 +1,23 @@
+package edu.unimagdalena.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.unimagdalena.orderservice.entity.Order;
+
+/**
+ * Outcome of one element of a batch request, identified by its position in the request body.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(long index, Status status, String id, String error) {
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    public static BatchItemResult created(long index, Order order) {
+        return new BatchItemResult(index, Status.CREATED, order.getId(), null);
+    }
+
+    public static BatchItemResult failed(long index, Throwable error) {
+        return new BatchItemResult(index, Status.FAILED, null, error.getMessage());
+    }
+}
@@ -0,0 +1,21 @@
+package edu.unimagdalena.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.unimagdalena.orderservice.entity.Order;
+
+/**
+ * One committed change to an order, numbered with a gapless offset. A {@link Type#RESET} tells the
+ * client that changes after its offset are no longer available (or were produced by a previous
+ * instance), so it must reload the orders before following the feed again.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderChange(long offset, Type type, String id, Order order) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESET
+    }
+
+    public static OrderChange reset(long offset) {
+        return new OrderChange(offset, Type.RESET, null, null);
+    }
+}
@@ -0,0 +1,39 @@
+package edu.unimagdalena.orderservice.dto;
+
+import edu.unimagdalena.orderservice.entity.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the {@code (date, id)} ordering of orders, exchanged with clients as an
+ * opaque URL-safe token.
+ */
+public record OrderCursor(LocalDateTime date, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getDate(), order.getId());
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new OrderCursor(LocalDateTime.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((date + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
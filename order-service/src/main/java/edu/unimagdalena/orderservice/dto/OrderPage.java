@@ -0,0 +1,11 @@
+package edu.unimagdalena.orderservice.dto;
+
+import edu.unimagdalena.orderservice.entity.Order;
+
+import java.util.List;
+
+/**
+ * One keyset page of orders; {@code nextCursor} is {@code null} on the last page.
+ */
+public record OrderPage(List<Order> items, String nextCursor) {
+}
@@ -0,0 +1,30 @@
+package edu.unimagdalena.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Revenue ({@code price * quantity}) and units sold for one product within one time bucket.
+ */
+public record OrderStats(LocalDateTime bucket, String productName, BigDecimal revenue, long units) {
+
+    public enum Bucket {
+        HOUR, DAY;
+
+        public static Bucket from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid bucket: " + value + " (expected hour or day)", e);
+            }
+        }
+
+        /**
+         * Field name understood by PostgreSQL's {@code date_trunc}.
+         */
+        public String unit() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.GenericGenerator;
 
 import java.math.BigDecimal;
@@ -12,7 +13,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_date_id", columnList = "date, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,8 +30,21 @@ public class Order {
     @Column(name = "date", nullable = false, updatable = false)
     private LocalDateTime date;
 
+    /**
+     * Optimistic lock column. A {@code null} version is how Spring Data recognises a new order, so
+     * saving one with an assigned id is a plain INSERT instead of a SELECT followed by a merge.
+     * The column default backfills rows written before the column existed.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    public Order(String id, String productName, Integer quantity, BigDecimal price, LocalDateTime date) {
+        this(id, productName, quantity, price, date, null);
+    }
+
     @PrePersist
-    protected void onCreate(){
+    public void onCreate(){
         if (this.id == null) {
             this.id = UUID.randomUUID().toString();
         }
@@ -0,0 +1,74 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.dto.OrderCursor;
+import edu.unimagdalena.orderservice.entity.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.persistence", havingValue = "jpa", matchIfMissing = true)
+public class JpaOrderStore implements OrderStore {
+
+    private final OrderRepository orderRepository;
+    private final Scheduler blockingScheduler;
+
+    @Override
+    public Flux<Order> findPage(OrderCursor after, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(after == null
+                        ? orderRepository.findFirstPage(PageRequest.ofSize(limit))
+                        : orderRepository.findPageAfter(after.date(), after.id(), PageRequest.ofSize(limit))))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Flux<Order> findByDateRange(LocalDateTime from, LocalDateTime to) {
+        return Flux.defer(() -> Flux.fromIterable(
+                        orderRepository.findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(from, to)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Mono<Order> findById(String id) {
+        return Mono.defer(() -> Mono.justOrEmpty(orderRepository.findById(id)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Mono<Order> create(Order order) {
+        return Mono.defer(() -> {
+                    order.setVersion(null);
+                    return Mono.just(orderRepository.save(order));
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Flux<Order> createAll(List<Order> orders) {
+        return Flux.defer(() -> {
+                    orders.forEach(order -> order.setVersion(null));
+                    return Flux.fromIterable(orderRepository.saveAll(orders));
+                })
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Mono<Order> update(String id, Order order) {
+        return Mono.defer(() -> Mono.justOrEmpty(orderRepository.updateReturning(id, order)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(String id) {
+        return Mono.fromCallable(() -> orderRepository.removeById(id) > 0)
+                .subscribeOn(blockingScheduler);
+    }
+}
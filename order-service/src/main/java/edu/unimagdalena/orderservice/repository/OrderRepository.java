@@ -1,9 +1,36 @@
 package edu.unimagdalena.orderservice.repository;
 
 import edu.unimagdalena.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, String>, OrderRepositoryCustom {
+
+    @Query("select o from Order o order by o.date, o.id")
+    List<Order> findFirstPage(Pageable pageable);
+
+    @Query("select o from Order o where o.date >= :date and (o.date > :date or o.id > :id) order by o.date, o.id")
+    List<Order> findPageAfter(@Param("date") LocalDateTime date, @Param("id") String id, Pageable pageable);
+
+    List<Order> findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Deletes the order in one statement; the rollup trigger subtracts it from its hour like any
+     * other delete on {@code orders}.
+     *
+     * @return the number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Order o where o.id = :id")
+    int removeById(@Param("id") String id);
 }
@@ -0,0 +1,22 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.entity.Order;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Replaces the product name, quantity and price of the order with the given id and returns it as
+     * updated. The order date is left alone, so an edit never moves the order to another page of the
+     * date-keyed listing. With a version in {@code changes}, an order edited since it was read is
+     * left untouched.
+     *
+     * @return the updated order, or empty when no order has the given id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the order exists but its
+     *                                                                   version differs
+     */
+    @Transactional
+    Optional<Order> updateReturning(String id, Order changes);
+}
@@ -0,0 +1,46 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final String UPDATE = "UPDATE orders SET product_name = :productName, quantity = :quantity,"
+            + " price = :price, version = version + 1 WHERE id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Parameters are bound with explicit types: PostgreSQL rejects untyped {@code null}s in a
+     * native {@code SET} clause.
+     */
+    @Override
+    @Transactional
+    public Optional<Order> updateReturning(String id, Order changes) {
+        boolean checkVersion = changes.getVersion() != null;
+        NativeQuery<Order> query = entityManager.unwrap(Session.class)
+                .createNativeQuery(UPDATE + (checkVersion ? " AND version = :version" : "") + " RETURNING *", Order.class);
+        query.setParameter("id", id, StandardBasicTypes.STRING)
+                .setParameter("productName", changes.getProductName(), StandardBasicTypes.STRING)
+                .setParameter("quantity", changes.getQuantity(), StandardBasicTypes.INTEGER)
+                .setParameter("price", changes.getPrice(), StandardBasicTypes.BIG_DECIMAL);
+        if (checkVersion) {
+            query.setParameter("version", changes.getVersion(), StandardBasicTypes.LONG);
+        }
+        List<Order> updated = query.getResultList();
+        if (updated.isEmpty() && checkVersion && entityManager.find(Order.class, id) != null) {
+            throw new OptimisticLockingFailureException("Order " + id + " was modified concurrently");
+        }
+        return updated.stream().findFirst();
+    }
+}
@@ -0,0 +1,64 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.dto.OrderStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and folds the hourly {@code order_rollups} maintained by the triggers installed in
+ * {@link edu.unimagdalena.orderservice.config.OrderRollupInitializer}; the cost depends on the number
+ * of buckets in the range plus the deltas not folded yet, not on the number of orders.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderRollupRepository {
+
+    private static final String FOLD = """
+            WITH moved AS (
+                DELETE FROM order_rollup_deltas RETURNING bucket, product_name, revenue, units
+            )
+            INSERT INTO order_rollups AS r (bucket, product_name, revenue, units)
+            SELECT bucket, product_name, sum(revenue), sum(units) FROM moved GROUP BY 1, 2
+            ON CONFLICT (bucket, product_name)
+            DO UPDATE SET revenue = r.revenue + EXCLUDED.revenue, units = r.units + EXCLUDED.units""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Sums the hourly rollups of {@code [from, to)} per product and {@code bucket}, together with the
+     * deltas not folded into them yet, so the stats include every committed order. {@code from} is
+     * rounded down to the hour because that is the rollup granularity.
+     */
+    public List<OrderStats> findStats(OrderStats.Bucket bucket, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("""
+                        SELECT date_trunc(?, bucket) AS bucket, product_name, sum(revenue) AS revenue, sum(units) AS units
+                        FROM (SELECT bucket, product_name, revenue, units FROM order_rollups
+                              UNION ALL
+                              SELECT bucket, product_name, revenue, units FROM order_rollup_deltas) r
+                        WHERE bucket >= date_trunc('hour', ?::timestamp) AND bucket < ?
+                        GROUP BY 1, 2
+                        HAVING sum(units) <> 0 OR sum(revenue) <> 0
+                        ORDER BY 1, 2""",
+                (rs, rowNum) -> new OrderStats(
+                        rs.getObject("bucket", LocalDateTime.class),
+                        rs.getString("product_name"),
+                        rs.getBigDecimal("revenue"),
+                        rs.getLong("units")),
+                bucket.unit(), from, to);
+    }
+
+    /**
+     * Moves the committed deltas into {@code order_rollups} in one statement. Deltas committed while
+     * it runs are left for the next fold, and a concurrent fold skips the rows this one deleted, so
+     * each delta is added exactly once.
+     *
+     * @return the number of rollup rows changed
+     */
+    public int foldDeltas() {
+        return jdbcTemplate.update(FOLD);
+    }
+}
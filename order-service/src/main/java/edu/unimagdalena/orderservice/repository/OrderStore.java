@@ -0,0 +1,49 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.dto.OrderCursor;
+import edu.unimagdalena.orderservice.entity.Order;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reactive persistence port for {@link Order}. The implementation is selected with
+ * {@code order.persistence}: {@code jpa} (default) offloads the blocking {@link OrderRepository},
+ * {@code r2dbc} talks to PostgreSQL without blocking any thread.
+ */
+public interface OrderStore {
+
+    /**
+     * Returns up to {@code limit} orders in {@code (date, id)} order, starting right after
+     * {@code after}, or from the beginning when it is {@code null}.
+     */
+    Flux<Order> findPage(OrderCursor after, int limit);
+
+    /**
+     * Returns the orders with {@code from <= date < to} in {@code (date, id)} order.
+     */
+    Flux<Order> findByDateRange(LocalDateTime from, LocalDateTime to);
+
+    Mono<Order> findById(String id);
+
+    Mono<Order> create(Order order);
+
+    /**
+     * Inserts all orders atomically, emitting them in the given order once committed.
+     */
+    Flux<Order> createAll(List<Order> orders);
+
+    /**
+     * Replaces the order with the given id in one statement, completing empty when it does not exist.
+     * If {@code order} carries a version, the update fails with
+     * {@link org.springframework.dao.OptimisticLockingFailureException} unless it is still current.
+     */
+    Mono<Order> update(String id, Order order);
+
+    /**
+     * Deletes the order with the given id, emitting whether a row was removed.
+     */
+    Mono<Boolean> deleteById(String id);
+}
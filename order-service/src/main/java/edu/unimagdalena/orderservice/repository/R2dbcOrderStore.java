@@ -0,0 +1,162 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.OrderCursor;
+import edu.unimagdalena.orderservice.entity.Order;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Non-blocking {@link OrderStore} on top of R2DBC. It shares the {@code orders} table that
+ * Hibernate creates, so both modes can be switched without a data migration.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.persistence", havingValue = "r2dbc")
+public class R2dbcOrderStore implements OrderStore {
+
+    private static final String COLUMNS = "id, product_name, quantity, price, date, version";
+
+    private final DatabaseClient databaseClient;
+    private final OrderProperties orderProperties;
+
+    @Override
+    public Flux<Order> findPage(OrderCursor after, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = after == null
+                ? databaseClient.sql("SELECT " + COLUMNS + " FROM orders ORDER BY date, id LIMIT :limit")
+                : databaseClient.sql("SELECT " + COLUMNS + " FROM orders WHERE (date, id) > (:date, :id)"
+                                + " ORDER BY date, id LIMIT :limit")
+                        .bind("date", after.date())
+                        .bind("id", idValue(after.id()));
+        return spec.bind("limit", limit)
+                .map(R2dbcOrderStore::toOrder)
+                .all();
+    }
+
+    @Override
+    public Flux<Order> findByDateRange(LocalDateTime from, LocalDateTime to) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM orders WHERE date >= :from AND date < :to ORDER BY date, id")
+                .bind("from", from)
+                .bind("to", to)
+                .map(R2dbcOrderStore::toOrder)
+                .all();
+    }
+
+    @Override
+    public Mono<Order> findById(String id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM orders WHERE id = :id")
+                .bind("id", idValue(id))
+                .map(R2dbcOrderStore::toOrder)
+                .one();
+    }
+
+    @Override
+    public Mono<Order> create(Order order) {
+        return Mono.defer(() -> {
+            order.onCreate();
+            order.setVersion(0L);
+            DatabaseClient.GenericExecuteSpec spec = databaseClient
+                    .sql("INSERT INTO orders (" + COLUMNS + ") VALUES (:id, :productName, :quantity, :price, :date, 0)")
+                    .bind("id", idValue(order.getId()))
+                    .bind("date", order.getDate());
+            spec = bind(spec, "productName", order.getProductName(), String.class);
+            spec = bind(spec, "quantity", order.getQuantity(), Integer.class);
+            spec = bind(spec, "price", order.getPrice(), BigDecimal.class);
+            return spec.fetch().rowsUpdated().thenReturn(order);
+        });
+    }
+
+    /**
+     * Writes the whole chunk with a single multi-row INSERT, which is atomic on its own and costs
+     * one round trip.
+     */
+    @Override
+    public Flux<Order> createAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> {
+            StringJoiner values = new StringJoiner(", ");
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).onCreate();
+                orders.get(i).setVersion(0L);
+                values.add("(:id" + i + ", :productName" + i + ", :quantity" + i + ", :price" + i + ", :date" + i + ", 0)");
+            }
+            DatabaseClient.GenericExecuteSpec spec = databaseClient
+                    .sql("INSERT INTO orders (" + COLUMNS + ") VALUES " + values);
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                spec = spec.bind("id" + i, idValue(order.getId())).bind("date" + i, order.getDate());
+                spec = bind(spec, "productName" + i, order.getProductName(), String.class);
+                spec = bind(spec, "quantity" + i, order.getQuantity(), Integer.class);
+                spec = bind(spec, "price" + i, order.getPrice(), BigDecimal.class);
+            }
+            return spec.fetch().rowsUpdated().thenMany(Flux.fromIterable(orders));
+        });
+    }
+
+    @Override
+    public Mono<Order> update(String id, Order order) {
+        boolean checkVersion = order.getVersion() != null;
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql("UPDATE orders SET product_name = :productName, quantity = :quantity, price = :price,"
+                        + " version = version + 1 WHERE id = :id"
+                        + (checkVersion ? " AND version = :version" : "") + " RETURNING " + COLUMNS)
+                .bind("id", idValue(id));
+        if (checkVersion) {
+            spec = spec.bind("version", order.getVersion());
+        }
+        spec = bind(spec, "productName", order.getProductName(), String.class);
+        spec = bind(spec, "quantity", order.getQuantity(), Integer.class);
+        spec = bind(spec, "price", order.getPrice(), BigDecimal.class);
+        Mono<Order> updated = spec.map(R2dbcOrderStore::toOrder).one();
+        return checkVersion
+                ? updated.switchIfEmpty(findById(id).flatMap(existing -> Mono.error(
+                        new OptimisticLockingFailureException("Order " + id + " was modified concurrently"))))
+                : updated;
+    }
+
+    @Override
+    public Mono<Boolean> deleteById(String id) {
+        return databaseClient.sql("DELETE FROM orders WHERE id = :id")
+                .bind("id", idValue(id))
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    /**
+     * Unlike JDBC with {@code stringtype=unspecified}, R2DBC sends strings as varchar, which PostgreSQL
+     * will not compare with a {@code uuid} column; such ids are bound as {@link UUID} instead.
+     */
+    private Object idValue(String id) {
+        return orderProperties.getId().isNativeUuid() ? UUID.fromString(id) : id;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          String name, Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static Order toOrder(Readable row) {
+        return new Order(
+                String.valueOf(row.get("id")),
+                row.get("product_name", String.class),
+                row.get("quantity", Integer.class),
+                row.get("price", BigDecimal.class),
+                row.get("date", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
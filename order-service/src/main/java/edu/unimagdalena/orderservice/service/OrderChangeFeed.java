@@ -0,0 +1,59 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.OrderChange;
+import edu.unimagdalena.orderservice.entity.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * In-process multicast of committed order changes. The last {@code order.changes.replay-size}
+ * changes are replayed to every new subscriber, which is what lets a reconnecting client resume
+ * from the offset it last saw instead of polling the table.
+ */
+@Component
+public class OrderChangeFeed {
+
+    private final Sinks.Many<OrderChange> sink;
+
+    private long lastOffset;
+
+    public OrderChangeFeed(OrderProperties orderProperties) {
+        this.sink = Sinks.many().replay().limit(orderProperties.getChanges().getReplaySize());
+    }
+
+    /**
+     * Publishes a change; must only be called once the change is committed. Offsets are assigned
+     * and emitted under the same lock so subscribers always see them in order.
+     */
+    public synchronized void publish(OrderChange.Type type, String id, Order order) {
+        lastOffset++;
+        sink.emitNext(new OrderChange(lastOffset, type, id, order), Sinks.EmitFailureHandler.FAIL_FAST);
+    }
+
+    /**
+     * Streams the changes after {@code since}, or only new ones when it is {@code null}. Starts with
+     * a {@link OrderChange.Type#RESET} when some of the requested changes are no longer retained.
+     */
+    public Flux<OrderChange> changes(Long since) {
+        return Flux.defer(() -> {
+            long current;
+            synchronized (this) {
+                current = lastOffset;
+            }
+            if (since == null) {
+                return sink.asFlux().filter(change -> change.offset() > current);
+            }
+            if (since > current) {
+                return Flux.concat(Flux.just(OrderChange.reset(current)),
+                        sink.asFlux().filter(change -> change.offset() > current));
+            }
+            return sink.asFlux()
+                    .filter(change -> change.offset() > since)
+                    .switchOnFirst((first, changes) -> first.hasValue() && first.get().offset() > since + 1
+                            ? Flux.concat(Flux.just(OrderChange.reset(first.get().offset() - 1)), changes)
+                            : changes);
+        });
+    }
+}
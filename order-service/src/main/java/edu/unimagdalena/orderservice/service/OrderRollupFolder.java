@@ -0,0 +1,57 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.repository.OrderRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Folds the deltas appended by the order triggers into {@code order_rollups} every
+ * {@code order.rollups.fold-interval}, so the delta table stays small. Runs after
+ * {@link edu.unimagdalena.orderservice.config.OrderRollupInitializer} has installed both tables.
+ */
+@Slf4j
+@Component
+public class OrderRollupFolder implements ApplicationRunner, DisposableBean {
+
+    private final OrderRollupRepository orderRollupRepository;
+    private final Scheduler blockingScheduler;
+    private final OrderProperties.Rollups config;
+
+    private volatile Disposable folding;
+
+    public OrderRollupFolder(OrderRollupRepository orderRollupRepository, Scheduler blockingScheduler,
+                             OrderProperties orderProperties) {
+        this.orderRollupRepository = orderRollupRepository;
+        this.blockingScheduler = blockingScheduler;
+        this.config = orderProperties.getRollups();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // a failed fold leaves its deltas in place; the next tick folds them
+        folding = Flux.interval(config.getFoldInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Mono.fromRunnable(orderRollupRepository::foldDeltas)
+                        .subscribeOn(blockingScheduler)
+                        .onErrorResume(e -> {
+                            log.warn("Folding order rollup deltas failed; retrying on the next tick", e);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        if (folding != null) {
+            folding.dispose();
+        }
+    }
+}
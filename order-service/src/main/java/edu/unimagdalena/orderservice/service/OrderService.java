@@ -1,52 +1,137 @@
 package edu.unimagdalena.orderservice.service;
 
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.BatchItemResult;
+import edu.unimagdalena.orderservice.dto.OrderChange;
+import edu.unimagdalena.orderservice.dto.OrderCursor;
+import edu.unimagdalena.orderservice.dto.OrderPage;
 import edu.unimagdalena.orderservice.entity.Order;
-import edu.unimagdalena.orderservice.repository.OrderRepository;
+import edu.unimagdalena.orderservice.repository.OrderStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.UUID;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
-    private final OrderRepository orderRepository;
+    private final OrderStore orderStore;
+    private final OrderProperties orderProperties;
+    private final IdGenerator idGenerator;
+    private final OrderChangeFeed orderChangeFeed;
+    private final OrderWriteBehind orderWriteBehind;
 
+    /**
+     * Streams every order by walking keyset pages, so only one page is held in memory at a time.
+     */
     public Flux<Order> getAllOrders() {
-        return Flux.defer(() -> Flux.fromIterable(orderRepository.findAll()))
-                .subscribeOn(Schedulers.boundedElastic());
+        int pageSize = orderProperties.getPagination().getStreamPageSize();
+        return orderStore.findPage(null, pageSize)
+                .collectList()
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : orderStore.findPage(OrderCursor.after(page.get(page.size() - 1)), pageSize).collectList())
+                .concatMapIterable(page -> page);
     }
+
+    public Mono<OrderPage> getOrdersPage(String cursor, int limit) {
+        if (limit < 1) {
+            return Mono.error(new IllegalArgumentException("limit must be positive"));
+        }
+        int pageSize = Math.min(limit, orderProperties.getPagination().getMaxLimit());
+        return Mono.defer(() -> {
+                    OrderCursor after = cursor == null ? null : OrderCursor.decode(cursor);
+                    return orderStore.findPage(after, pageSize).collectList();
+                })
+                .map(items -> new OrderPage(items, nextCursor(items, pageSize)));
+    }
+
+    /**
+     * Returns the orders placed in {@code [from, to)}; served by the {@code (date, id)} index.
+     */
+    public Flux<Order> getOrdersBetween(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return Flux.error(new IllegalArgumentException("from must be before to"));
+        }
+        return orderStore.findByDateRange(from, to);
+    }
+
     public Mono<Order> getOrderById(String id){
-        return Mono.defer(() -> Mono.justOrEmpty(orderRepository.findById(id)))
-                .subscribeOn(Schedulers.boundedElastic());
+        return orderStore.findById(id);
     }
 
+    /**
+     * Creates the order in its own transaction, or as part of a group commit when write-behind is
+     * enabled; either way the returned order is durable.
+     */
     public Mono<Order> createOrder(Order order){
-        return Mono.defer(() -> Mono.just(orderRepository.save(order)))
-                .subscribeOn(Schedulers.boundedElastic());
+        assignId(order);
+        return (orderWriteBehind.isEnabled() ? orderWriteBehind.submit(order) : orderStore.create(order))
+                .doOnNext(created -> orderChangeFeed.publish(OrderChange.Type.CREATED, created.getId(), created));
+    }
+
+    /**
+     * Persists orders in chunks of {@code order.batch.chunk-size}, one transaction per chunk. When a
+     * chunk fails it is retried item by item so that only the offending orders are reported as failed.
+     */
+    public Flux<BatchItemResult> createOrders(Flux<Order> orders) {
+        return orders.map(this::assignId)
+                .index()
+                .buffer(orderProperties.getBatch().getChunkSize())
+                .concatMap(this::createChunk);
     }
 
     public Mono<Order> updateOrder(String id, Order order){
-        return Mono.defer(() -> {
-            if(orderRepository.existsById(id)){
-                order.setId(id);
-                return Mono.just(orderRepository.save(order));
-            }
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic());
+        return orderStore.update(id, order)
+                .doOnNext(updated -> orderChangeFeed.publish(OrderChange.Type.UPDATED, id, updated));
     }
 
     public Mono<Void> deleteOrder(String id){
-        return Mono.defer(() -> {
-            if(orderRepository.existsById(id)){
-                orderRepository.deleteById(id);
-                return Mono.empty();
-            }
-            return Mono.error(new NoSuchElementException("Order not fount"));
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        return orderStore.deleteById(id)
+                .flatMap(deleted -> deleted
+                        ? Mono.<Void>empty()
+                        : Mono.error(new NoSuchElementException("Order not fount")))
+                .doOnSuccess(done -> orderChangeFeed.publish(OrderChange.Type.DELETED, id, null));
+    }
+
+    /**
+     * Follows committed order changes; see {@link OrderChangeFeed#changes(Long)}.
+     */
+    public Flux<OrderChange> getChanges(Long since) {
+        return orderChangeFeed.changes(since);
+    }
+
+    private Flux<BatchItemResult> createChunk(List<Tuple2<Long, Order>> chunk) {
+        List<Order> orders = chunk.stream().map(Tuple2::getT2).toList();
+        return orderStore.createAll(orders)
+                .collectList()
+                .doOnNext(saved -> saved.forEach(order ->
+                        orderChangeFeed.publish(OrderChange.Type.CREATED, order.getId(), order)))
+                .flatMapIterable(saved -> IntStream.range(0, saved.size())
+                        .mapToObj(i -> BatchItemResult.created(chunk.get(i).getT1(), saved.get(i)))
+                        .toList())
+                .onErrorResume(e -> Flux.fromIterable(chunk)
+                        .concatMap(item -> orderStore.create(item.getT2())
+                                .doOnNext(saved -> orderChangeFeed.publish(OrderChange.Type.CREATED, saved.getId(), saved))
+                                .map(saved -> BatchItemResult.created(item.getT1(), saved))
+                                .onErrorResume(error -> Mono.just(BatchItemResult.failed(item.getT1(), error)))));
+    }
+
+    private Order assignId(Order order) {
+        if (order.getId() == null) {
+            order.setId(idGenerator.nextId());
+        }
+        return order;
+    }
+
+    private static String nextCursor(List<Order> items, int pageSize) {
+        return items.size() < pageSize ? null : OrderCursor.after(items.get(items.size() - 1)).encode();
     }
 }
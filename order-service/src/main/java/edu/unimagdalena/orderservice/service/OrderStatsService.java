@@ -0,0 +1,28 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.dto.OrderStats;
+import edu.unimagdalena.orderservice.repository.OrderRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OrderStatsService {
+    private final OrderRollupRepository orderRollupRepository;
+    private final Scheduler blockingScheduler;
+
+    public Flux<OrderStats> getStats(LocalDateTime from, LocalDateTime to, String bucket) {
+        return Flux.defer(() -> {
+                    OrderStats.Bucket unit = OrderStats.Bucket.from(bucket);
+                    if (!from.isBefore(to)) {
+                        throw new IllegalArgumentException("from must be before to");
+                    }
+                    return Flux.fromIterable(orderRollupRepository.findStats(unit, from, to));
+                })
+                .subscribeOn(blockingScheduler);
+    }
+}
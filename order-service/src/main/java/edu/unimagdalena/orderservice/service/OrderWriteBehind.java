@@ -0,0 +1,116 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.entity.Order;
+import edu.unimagdalena.orderservice.repository.OrderStore;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Group commit for single order creation, enabled with {@code order.write-behind.enabled}. Orders
+ * from concurrent requests are queued and written with one {@link OrderStore#createAll} per group
+ * of up to {@code max-batch} orders or {@code max-delay}, whichever comes first. Each caller is
+ * only completed once the transaction holding its order has committed.
+ * <p>
+ * The queue is a bounded single-producer queue behind a unicast sink, so producers take turns
+ * through {@link #emit} rather than spinning on {@code FAIL_NON_SERIALIZED}. A waiting producer is
+ * parked by the lock instead of burning a core. Nothing is allocated while the feature is disabled.
+ */
+@Component
+public class OrderWriteBehind implements DisposableBean {
+
+    private final OrderStore orderStore;
+    private final boolean enabled;
+    private final Sinks.Many<Pending> queue;
+    private final CountDownLatch drained = new CountDownLatch(1);
+
+    public OrderWriteBehind(OrderStore orderStore, OrderProperties orderProperties) {
+        OrderProperties.WriteBehind config = orderProperties.getWriteBehind();
+        this.orderStore = orderStore;
+        this.enabled = config.isEnabled();
+        if (!enabled) {
+            this.queue = null;
+            return;
+        }
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(
+                Queues.<Pending>get(config.getQueueCapacity()).get());
+        queue.asFlux()
+                .bufferTimeout(config.getMaxBatch(), config.getMaxDelay(), true)
+                .concatMap(this::commit)
+                .doFinally(signal -> drained.countDown())
+                .subscribe();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the order and completes with it once its group is committed; fails with
+     * {@link RejectedExecutionException} when the queue is full. Only valid while {@link #isEnabled}.
+     */
+    public Mono<Order> submit(Order order) {
+        if (!enabled) {
+            return Mono.error(new IllegalStateException("Order write-behind is disabled"));
+        }
+        return Mono.defer(() -> {
+            Pending pending = new Pending(order, Sinks.one());
+            return emit(pending).isSuccess()
+                    ? pending.result().asMono()
+                    : Mono.error(new RejectedExecutionException("Order write-behind queue is full"));
+        });
+    }
+
+    /**
+     * Serializes producers, so the sink never sees concurrent emissions.
+     */
+    private synchronized Sinks.EmitResult emit(Pending pending) {
+        return queue.tryEmitNext(pending);
+    }
+
+    /**
+     * Commits the group in one transaction. If that fails the orders are retried one by one, so a
+     * single invalid order only fails its own caller.
+     */
+    private Mono<Void> commit(List<Pending> group) {
+        return orderStore.createAll(group.stream().map(Pending::order).toList())
+                .collectList()
+                .doOnNext(saved -> IntStream.range(0, saved.size())
+                        .forEach(i -> group.get(i).result().tryEmitValue(saved.get(i))))
+                .then()
+                .onErrorResume(e -> Flux.fromIterable(group)
+                        .concatMap(pending -> orderStore.create(pending.order())
+                                .doOnNext(saved -> pending.result().tryEmitValue(saved))
+                                .onErrorResume(error -> {
+                                    pending.result().tryEmitError(error);
+                                    return Mono.empty();
+                                }))
+                        .then());
+    }
+
+    /**
+     * Stops accepting orders and waits for the queued ones to be committed.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (enabled) {
+            synchronized (this) {
+                queue.tryEmitComplete();
+            }
+            drained.await(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private record Pending(Order order, Sinks.One<Order> result) {
+    }
+}
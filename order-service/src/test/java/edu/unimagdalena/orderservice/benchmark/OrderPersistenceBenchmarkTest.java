@@ -0,0 +1,82 @@
+package edu.unimagdalena.orderservice.benchmark;
+
+import edu.unimagdalena.orderservice.TestcontainersConfiguration;
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.entity.Order;
+import edu.unimagdalena.orderservice.repository.JpaOrderStore;
+import edu.unimagdalena.orderservice.repository.OrderRepository;
+import edu.unimagdalena.orderservice.repository.OrderStore;
+import edu.unimagdalena.orderservice.repository.R2dbcOrderStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the JPA and R2DBC order stores under concurrent load.
+ * Run with {@code ./mvnw test -Dtest=OrderPersistenceBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class OrderPersistenceBenchmarkTest {
+
+    private static final int ORDERS = 5_000;
+    private static final int CONCURRENCY = 256;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Test
+    void compareJpaAndR2dbcStores() {
+        // Warm up both paths so connection pools and JIT do not skew the first run
+        run("warm-up jpa", new JpaOrderStore(orderRepository, blockingScheduler));
+        run("warm-up r2dbc", new R2dbcOrderStore(databaseClient, new OrderProperties()));
+
+        run("jpa", new JpaOrderStore(orderRepository, blockingScheduler));
+        run("r2dbc", new R2dbcOrderStore(databaseClient, new OrderProperties()));
+    }
+
+    private void run(String name, OrderStore store) {
+        orderRepository.deleteAll();
+
+        long start = System.nanoTime();
+        List<Order> created = Flux.range(0, ORDERS)
+                .flatMap(i -> store.create(new Order(null, "Bench " + i, 1, BigDecimal.TEN, null)), CONCURRENCY)
+                .collectList()
+                .block();
+        Duration writes = Duration.ofNanos(System.nanoTime() - start);
+
+        start = System.nanoTime();
+        Long found = Flux.fromIterable(created)
+                .flatMap(order -> store.findById(order.getId()), CONCURRENCY)
+                .count()
+                .block();
+        Duration reads = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("%-14s creates: %6d ms (%8.0f ops/s)  reads: %6d ms (%8.0f ops/s)  threads: %d%n",
+                name,
+                writes.toMillis(), ORDERS * 1000.0 / Math.max(1, writes.toMillis()),
+                reads.toMillis(), ORDERS * 1000.0 / Math.max(1, reads.toMillis()),
+                Thread.activeCount());
+
+        assertThat(created).hasSize(ORDERS);
+        assertThat(found).isEqualTo(ORDERS);
+    }
+}
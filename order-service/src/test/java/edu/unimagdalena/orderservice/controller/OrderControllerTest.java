@@ -1,10 +1,17 @@
 package edu.unimagdalena.orderservice.controller;
 
+import edu.unimagdalena.orderservice.dto.BatchItemResult;
+import edu.unimagdalena.orderservice.dto.OrderChange;
+import edu.unimagdalena.orderservice.dto.OrderPage;
+import edu.unimagdalena.orderservice.dto.OrderStats;
 import edu.unimagdalena.orderservice.entity.Order;
 import edu.unimagdalena.orderservice.service.OrderService;
+import edu.unimagdalena.orderservice.service.OrderStatsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -13,8 +20,11 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,6 +34,9 @@ public class OrderControllerTest {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private OrderStatsService orderStatsService;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -47,6 +60,106 @@ public class OrderControllerTest {
         verify(orderService).getAllOrders();
     }
 
+    @Test
+    public void shouldStreamOrdersAsNdjson() {
+        // Given
+        Order order1 = new Order("1", "Product1", 1, new BigDecimal("10.0"), LocalDateTime.now());
+        Order order2 = new Order("2", "Product2", 2, new BigDecimal("20.0"), LocalDateTime.now());
+
+        when(orderService.getAllOrders()).thenReturn(Flux.just(order1, order2));
+
+        // When/Then
+        webTestClient.get().uri("/api/orders")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Order.class)
+                .contains(order1, order2);
+    }
+
+    @Test
+    public void shouldGetOrdersPage() {
+        // Given
+        Order order = new Order("1", "Product1", 1, new BigDecimal("10.0"), LocalDateTime.now());
+        when(orderService.getOrdersPage(isNull(), anyInt()))
+                .thenReturn(Mono.just(new OrderPage(List.of(order), "next")));
+
+        // When/Then
+        webTestClient.get().uri("/api/orders?limit=1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo("1")
+                .jsonPath("$.nextCursor").isEqualTo("next");
+    }
+
+    @Test
+    public void shouldReturn400ForMalformedCursor() {
+        // Given
+        when(orderService.getOrdersPage(any(), anyInt()))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor: bad")));
+
+        // When/Then
+        webTestClient.get().uri("/api/orders?limit=1&cursor=bad")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void shouldGetOrdersBetweenDates() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime to = from.plusHours(1);
+        Order order = new Order("1", "Product1", 1, new BigDecimal("10.0"), from.plusMinutes(5));
+        when(orderService.getOrdersBetween(from, to)).thenReturn(Flux.just(order));
+
+        // When/Then
+        webTestClient.get().uri("/api/orders?from=2025-01-01T10:00:00&to=2025-01-01T11:00:00")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Order.class)
+                .hasSize(1)
+                .contains(order);
+
+        verify(orderService).getOrdersBetween(from, to);
+    }
+
+    @Test
+    public void shouldGetStats() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        OrderStats stats = new OrderStats(from, "Product1", new BigDecimal("20.0"), 2);
+        when(orderStatsService.getStats(from, to, "day")).thenReturn(Flux.just(stats));
+
+        // When/Then
+        webTestClient.get().uri("/api/orders/stats?from=2025-01-01T00:00:00&to=2025-01-02T00:00:00&bucket=day")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].productName").isEqualTo("Product1")
+                .jsonPath("$[0].units").isEqualTo(2);
+    }
+
+    @Test
+    public void shouldStreamChangesAsNdjson() {
+        // Given
+        Order order = new Order("1", "Product1", 1, new BigDecimal("10.0"), LocalDateTime.now());
+        when(orderService.getChanges(5L))
+                .thenReturn(Flux.just(new OrderChange(6, OrderChange.Type.CREATED, "1", order)));
+
+        // When/Then
+        webTestClient.get().uri("/api/orders/changes?since=5")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(OrderChange.class)
+                .contains(new OrderChange(6, OrderChange.Type.CREATED, "1", order));
+    }
+
     @Test
     public void shouldGetOrderById() {
         // Given
@@ -96,4 +209,44 @@ public class OrderControllerTest {
                 .expectBody(Order.class)
                 .isEqualTo(createdOrder);
     }
+
+    @Test
+    public void shouldCreateOrdersFromNdjsonBatch() {
+        // Given
+        String body = "{\"productName\":\"A\",\"quantity\":1,\"price\":10.0}\n"
+                + "{\"productName\":\"B\",\"quantity\":2,\"price\":20.0}\n";
+        when(orderService.createOrders(any())).thenAnswer(invocation -> {
+            Flux<Order> orders = invocation.getArgument(0);
+            return orders.index().map(item -> BatchItemResult.created(item.getT1(),
+                    new Order("id-" + item.getT2().getProductName(), item.getT2().getProductName(),
+                            item.getT2().getQuantity(), item.getT2().getPrice(), LocalDateTime.now())));
+        });
+
+        // When/Then
+        webTestClient.post().uri("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].status").isEqualTo("CREATED")
+                .jsonPath("$[1].id").isEqualTo("id-B");
+    }
+
+    @Test
+    public void shouldReturn409WhenUpdatingWithStaleVersion() {
+        // Given
+        Order order = new Order("1", "Product1", 1, new BigDecimal("10.0"), null, 2L);
+        when(orderService.updateOrder(any(), any(Order.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Order 1 was modified concurrently")));
+
+        // When/Then
+        webTestClient.put().uri("/api/orders/{id}", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(order)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
 }
@@ -1,18 +1,23 @@
 package edu.unimagdalena.orderservice.repository;
 
 import edu.unimagdalena.orderservice.entity.Order;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -37,6 +42,22 @@ public class OrderRepositoryTest {
         assertThat(entityManager.find(Order.class, savedOrder.getId())).isEqualTo(savedOrder);
     }
 
+    @Test
+    void saveOrder_withAssignedId_shouldIssueSingleInsert() {
+        // Given
+        Statistics statistics = statistics();
+        Order order = new Order(UUID.randomUUID().toString(), "Assigned Id", 1, new BigDecimal("9.99"), null);
+
+        // When
+        orderRepository.save(order);
+        entityManager.flush();
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
     @Test
     void findById_whenOrderExists_shouldReturnOrder() {
         // Given
@@ -74,6 +95,72 @@ public class OrderRepositoryTest {
                 .contains("Product 1", "Product 2");
     }
 
+    @Test
+    void findByDateRange_shouldReturnOnlyOrdersInsideTheRange() {
+        // Given
+        Order order = entityManager.persist(new Order(null, "In Range", 1, new BigDecimal("10.00"), null));
+        LocalDateTime date = order.getDate();
+
+        // When
+        List<Order> inRange = orderRepository
+                .findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(date, date.plusSeconds(1));
+        List<Order> later = orderRepository
+                .findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(date.plusSeconds(1), date.plusHours(1));
+
+        // Then
+        assertThat(inRange).extracting(Order::getId).contains(order.getId());
+        assertThat(later).extracting(Order::getId).doesNotContain(order.getId());
+    }
+
+    @Test
+    void updateReturning_shouldUpdateAndBumpVersionInOneStatement() {
+        // Given
+        Order order = entityManager.persistFlushFind(new Order(null, "Before", 1, new BigDecimal("10.00"), null));
+        entityManager.clear();
+        Statistics statistics = statistics();
+        Order changes = new Order(null, "After", 3, new BigDecimal("12.50"), null, order.getVersion());
+
+        // When
+        Optional<Order> updated = orderRepository.updateReturning(order.getId(), changes);
+
+        // Then
+        assertThat(updated).hasValueSatisfying(result -> {
+            assertThat(result.getProductName()).isEqualTo("After");
+            assertThat(result.getQuantity()).isEqualTo(3);
+            assertThat(result.getVersion()).isEqualTo(order.getVersion() + 1);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updateReturning_withStaleVersion_shouldThrowOptimisticLockingFailure() {
+        // Given
+        Order order = entityManager.persistFlushFind(new Order(null, "Before", 1, new BigDecimal("10.00"), null));
+        entityManager.clear();
+        Order changes = new Order(null, "After", 3, new BigDecimal("12.50"), null, order.getVersion() + 1);
+
+        // When / Then
+        assertThatThrownBy(() -> orderRepository.updateReturning(order.getId(), changes))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void updateReturning_whenOrderDoesNotExist_shouldReturnEmpty() {
+        Order changes = new Order(null, "After", 3, null, null);
+
+        assertThat(orderRepository.updateReturning("non-existent-id", changes)).isEmpty();
+    }
+
+    @Test
+    void removeById_shouldReturnDeletedRowCount() {
+        // Given
+        Order order = entityManager.persistFlushFind(new Order(null, "To Remove", 1, new BigDecimal("15.00"), null));
+
+        // When / Then
+        assertThat(orderRepository.removeById(order.getId())).isEqualTo(1);
+        assertThat(orderRepository.removeById(order.getId())).isZero();
+    }
+
     @Test
     void deleteById_shouldRemoveOrder() {
         // Given
@@ -106,4 +193,13 @@ public class OrderRepositoryTest {
         // Then
         assertThat(exists).isFalse();
     }
-}
\ No newline at end of file
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.TestcontainersConfiguration;
+import edu.unimagdalena.orderservice.dto.OrderStats;
+import edu.unimagdalena.orderservice.entity.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+public class OrderRollupRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderRollupRepository orderRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        from = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        to = from.plusDays(1);
+    }
+
+    @Test
+    void findStats_shouldReflectInsertsUpdatesAndDeletes() {
+        // Given
+        Order first = orderRepository.save(new Order(null, "Rollup A", 2, new BigDecimal("10.00"), null));
+        Order second = orderRepository.save(new Order(null, "Rollup A", 1, new BigDecimal("5.00"), null));
+        orderRepository.save(new Order(null, "Rollup B", 3, new BigDecimal("1.50"), null));
+
+        // When
+        first.setQuantity(4);
+        orderRepository.save(first);
+        orderRepository.deleteById(second.getId());
+        List<OrderStats> stats = orderRollupRepository.findStats(OrderStats.Bucket.DAY, from, to);
+
+        // Then
+        assertThat(stats).filteredOn(s -> s.productName().startsWith("Rollup"))
+                .extracting(OrderStats::productName, s -> s.revenue().stripTrailingZeros(), OrderStats::units)
+                .containsExactly(
+                        tuple("Rollup A", new BigDecimal("40"), 4L),
+                        tuple("Rollup B", new BigDecimal("4.5"), 3L));
+        assertThat(stats).allSatisfy(s -> assertThat(s.bucket()).isEqualTo(from));
+    }
+
+    @Test
+    void foldDeltas_shouldKeepStatsAndEmptyTheDeltas() {
+        // Given
+        orderRepository.save(new Order(null, "Rollup D", 2, new BigDecimal("3.00"), null));
+
+        // When
+        orderRollupRepository.foldDeltas();
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_rollup_deltas", Long.class)).isZero();
+        assertThat(orderRollupRepository.findStats(OrderStats.Bucket.DAY, from, to))
+                .filteredOn(s -> s.productName().equals("Rollup D"))
+                .extracting(s -> s.revenue().stripTrailingZeros(), OrderStats::units)
+                .containsExactly(tuple(new BigDecimal("6"), 2L));
+    }
+
+    @Test
+    void findStats_shouldIgnoreBucketsOutsideTheRange() {
+        // Given
+        orderRepository.save(new Order(null, "Rollup C", 1, new BigDecimal("10.00"), null));
+
+        // When
+        List<OrderStats> stats = orderRollupRepository.findStats(OrderStats.Bucket.HOUR, to, to.plusDays(1));
+
+        // Then
+        assertThat(stats).extracting(OrderStats::productName).doesNotContain("Rollup C");
+    }
+}
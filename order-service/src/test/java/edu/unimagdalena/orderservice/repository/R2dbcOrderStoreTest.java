@@ -0,0 +1,107 @@
+package edu.unimagdalena.orderservice.repository;
+
+import edu.unimagdalena.orderservice.TestcontainersConfiguration;
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.OrderCursor;
+import edu.unimagdalena.orderservice.entity.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import(TestcontainersConfiguration.class)
+public class R2dbcOrderStoreTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private R2dbcOrderStore orderStore;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        orderStore = new R2dbcOrderStore(databaseClient, new OrderProperties());
+    }
+
+    @Test
+    void create_shouldAssignIdAndDate() {
+        Order order = new Order(null, "Reactive Product", 2, new BigDecimal("29.99"), null);
+
+        StepVerifier.create(orderStore.create(order))
+                .assertNext(saved -> {
+                    assertThat(saved.getId()).isNotNull();
+                    assertThat(saved.getDate()).isNotNull();
+                })
+                .verifyComplete();
+
+        assertThat(orderRepository.findById(order.getId())).isPresent();
+    }
+
+    @Test
+    void findById_shouldReadOrderWrittenByJpa() {
+        Order persisted = orderRepository.save(new Order(null, "Jpa Product", 1, new BigDecimal("10.00"), null));
+
+        StepVerifier.create(orderStore.findById(persisted.getId()))
+                .assertNext(found -> {
+                    assertThat(found.getProductName()).isEqualTo("Jpa Product");
+                    assertThat(found.getPrice()).isEqualByComparingTo("10.00");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldFollowDateThenIdOrder() {
+        LocalDateTime date = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Order> orders = List.of(
+                new Order("a", "First", 1, BigDecimal.ONE, date),
+                new Order("b", "Second", 1, BigDecimal.ONE, date),
+                new Order("c", "Third", 1, BigDecimal.ONE, date.plusSeconds(1)));
+        orders.forEach(order -> databaseClient
+                .sql("INSERT INTO orders (id, product_name, quantity, price, date) VALUES (:id, :name, 1, 1, :date)")
+                .bind("id", order.getId())
+                .bind("name", order.getProductName())
+                .bind("date", order.getDate())
+                .then()
+                .block());
+
+        StepVerifier.create(orderStore.findPage(null, 2).map(Order::getId))
+                .expectNext("a", "b")
+                .verifyComplete();
+        StepVerifier.create(orderStore.findPage(OrderCursor.after(orders.get(1)), 2).map(Order::getId))
+                .expectNext("c")
+                .verifyComplete();
+    }
+
+    @Test
+    void update_whenOrderDoesNotExist_shouldReturnEmpty() {
+        Order order = new Order(null, "Missing", 1, new BigDecimal("10.00"), null);
+
+        StepVerifier.create(orderStore.update("non-existent-id", order))
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteById_shouldReportWhetherARowWasRemoved() {
+        Order persisted = orderRepository.save(new Order(null, "To Delete", 1, new BigDecimal("15.00"), null));
+
+        StepVerifier.create(orderStore.deleteById(persisted.getId()))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(orderStore.deleteById(persisted.getId()))
+                .expectNext(false)
+                .verifyComplete();
+    }
+}
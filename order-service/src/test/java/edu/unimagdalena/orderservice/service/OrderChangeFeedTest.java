@@ -0,0 +1,71 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.OrderChange;
+import edu.unimagdalena.orderservice.entity.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderChangeFeedTest {
+
+    private OrderChangeFeed orderChangeFeed;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        OrderProperties orderProperties = new OrderProperties();
+        orderProperties.getChanges().setReplaySize(3);
+        orderChangeFeed = new OrderChangeFeed(orderProperties);
+        order = new Order("1", "Producto Test", 2, new BigDecimal("29.99"), LocalDateTime.now());
+    }
+
+    @Test
+    void changes_withoutOffset_shouldOnlyEmitNewChanges() {
+        orderChangeFeed.publish(OrderChange.Type.CREATED, "1", order);
+
+        StepVerifier.create(orderChangeFeed.changes(null).take(1))
+                .then(() -> orderChangeFeed.publish(OrderChange.Type.UPDATED, "1", order))
+                .expectNextMatches(change -> change.offset() == 2 && change.type() == OrderChange.Type.UPDATED)
+                .verifyComplete();
+    }
+
+    @Test
+    void changes_withOffset_shouldResumeAfterIt() {
+        orderChangeFeed.publish(OrderChange.Type.CREATED, "1", order);
+        orderChangeFeed.publish(OrderChange.Type.UPDATED, "1", order);
+        orderChangeFeed.publish(OrderChange.Type.DELETED, "1", null);
+
+        StepVerifier.create(orderChangeFeed.changes(1L).take(2))
+                .expectNextMatches(change -> change.offset() == 2 && change.type() == OrderChange.Type.UPDATED)
+                .expectNextMatches(change -> change.offset() == 3 && change.type() == OrderChange.Type.DELETED)
+                .verifyComplete();
+    }
+
+    @Test
+    void changes_whenOffsetWasEvicted_shouldStartWithReset() {
+        for (int i = 0; i < 5; i++) {
+            orderChangeFeed.publish(OrderChange.Type.CREATED, "1", order);
+        }
+
+        StepVerifier.create(orderChangeFeed.changes(0L).take(2))
+                .expectNext(OrderChange.reset(2))
+                .expectNextMatches(change -> change.offset() == 3)
+                .verifyComplete();
+    }
+
+    @Test
+    void changes_withOffsetFromAnotherInstance_shouldStartWithReset() {
+        orderChangeFeed.publish(OrderChange.Type.CREATED, "1", order);
+
+        StepVerifier.create(orderChangeFeed.changes(42L).take(2))
+                .expectNext(OrderChange.reset(1))
+                .then(() -> orderChangeFeed.publish(OrderChange.Type.UPDATED, "1", order))
+                .expectNextMatches(change -> change.offset() == 2)
+                .verifyComplete();
+    }
+}
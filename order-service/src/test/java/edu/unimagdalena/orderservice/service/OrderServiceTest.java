@@ -1,23 +1,35 @@
 package edu.unimagdalena.orderservice.service;
 
+import edu.unimagdalena.commons.IdGenerator;
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.dto.BatchItemResult;
+import edu.unimagdalena.orderservice.dto.OrderChange;
+import edu.unimagdalena.orderservice.dto.OrderCursor;
 import edu.unimagdalena.orderservice.entity.Order;
+import edu.unimagdalena.orderservice.repository.JpaOrderStore;
 import edu.unimagdalena.orderservice.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,20 +38,29 @@ public class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
-    @InjectMocks
     private OrderService orderService;
 
+    private OrderProperties orderProperties;
+
+    private OrderChangeFeed orderChangeFeed;
+
     private Order testOrder;
 
     @BeforeEach
     void setUp() {
+        orderProperties = new OrderProperties();
+        orderChangeFeed = new OrderChangeFeed(orderProperties);
+        JpaOrderStore orderStore = new JpaOrderStore(orderRepository, Schedulers.boundedElastic());
+        orderService = new OrderService(orderStore, orderProperties,
+                new IdGenerator(IdGenerator.Strategy.UUID_V7), orderChangeFeed,
+                new OrderWriteBehind(orderStore, orderProperties));
         testOrder = new Order("1", "Producto Test", 2, new BigDecimal("29.99"), LocalDateTime.now());
     }
 
     @Test
     void getAllOrders_shouldReturnAllOrders() {
         // Given
-        when(orderRepository.findAll()).thenReturn(java.util.Arrays.asList(
+        when(orderRepository.findFirstPage(any(Pageable.class))).thenReturn(java.util.Arrays.asList(
                 testOrder,
                 new Order("2", "Otro Producto", 1, new BigDecimal("19.99"), LocalDateTime.now())
         ));
@@ -52,7 +73,91 @@ public class OrderServiceTest {
                 .expectNextCount(2)
                 .verifyComplete();
 
-        verify(orderRepository).findAll();
+        verify(orderRepository).findFirstPage(any(Pageable.class));
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllOrders_shouldWalkKeysetPagesUntilAShortPage() {
+        // Given
+        orderProperties.getPagination().setStreamPageSize(2);
+        LocalDateTime date = LocalDateTime.now();
+        Order order2 = new Order("2", "Producto 2", 1, new BigDecimal("10.00"), date);
+        Order order3 = new Order("3", "Producto 3", 1, new BigDecimal("10.00"), date);
+        testOrder.setDate(date);
+
+        when(orderRepository.findFirstPage(any(Pageable.class))).thenReturn(List.of(testOrder, order2));
+        when(orderRepository.findPageAfter(eq(date), eq("2"), any(Pageable.class))).thenReturn(List.of(order3));
+
+        // When / Then
+        StepVerifier.create(orderService.getAllOrders())
+                .expectNext(testOrder, order2, order3)
+                .verifyComplete();
+
+        verify(orderRepository).findPageAfter(eq(date), eq("2"), any(Pageable.class));
+    }
+
+    @Test
+    void getOrdersPage_shouldReturnNextCursorWhenPageIsFull() {
+        // Given
+        Order order2 = new Order("2", "Producto 2", 1, new BigDecimal("10.00"), LocalDateTime.now());
+        when(orderRepository.findFirstPage(any(Pageable.class))).thenReturn(List.of(testOrder, order2));
+
+        // When / Then
+        StepVerifier.create(orderService.getOrdersPage(null, 2))
+                .assertNext(page -> {
+                    assertThat(page.items()).containsExactly(testOrder, order2);
+                    assertThat(OrderCursor.decode(page.nextCursor())).isEqualTo(OrderCursor.after(order2));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getOrdersPage_shouldResumeAfterCursorAndEndWithoutNextCursor() {
+        // Given
+        OrderCursor cursor = OrderCursor.after(testOrder);
+        when(orderRepository.findPageAfter(eq(cursor.date()), eq(cursor.id()), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When / Then
+        StepVerifier.create(orderService.getOrdersPage(cursor.encode(), 10))
+                .assertNext(page -> {
+                    assertThat(page.items()).isEmpty();
+                    assertThat(page.nextCursor()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void getOrdersPage_withMalformedCursor_shouldFail() {
+        StepVerifier.create(orderService.getOrdersPage("not-a-cursor", 10))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    @Test
+    void getOrdersBetween_shouldQueryTheDateRange() {
+        // Given
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusHours(1);
+        when(orderRepository.findByDateGreaterThanEqualAndDateLessThanOrderByDateAscIdAsc(from, to))
+                .thenReturn(List.of(testOrder));
+
+        // When / Then
+        StepVerifier.create(orderService.getOrdersBetween(from, to))
+                .expectNext(testOrder)
+                .verifyComplete();
+    }
+
+    @Test
+    void getOrdersBetween_whenFromIsNotBeforeTo_shouldFail() {
+        LocalDateTime now = LocalDateTime.now();
+
+        StepVerifier.create(orderService.getOrdersBetween(now, now))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -105,24 +210,69 @@ public class OrderServiceTest {
         verify(orderRepository).save(any(Order.class));
     }
 
+    @Test
+    void createOrders_shouldSaveEachChunkWithSaveAll() {
+        // Given
+        orderProperties.getBatch().setChunkSize(2);
+        Order order1 = new Order(null, "Producto 1", 1, new BigDecimal("10.00"), null);
+        Order order2 = new Order(null, "Producto 2", 1, new BigDecimal("10.00"), null);
+        Order order3 = new Order(null, "Producto 3", 1, new BigDecimal("10.00"), null);
+
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> chunk = invocation.getArgument(0);
+            chunk.forEach(order -> order.setId("id-" + order.getProductName()));
+            return chunk;
+        });
+
+        // When / Then
+        StepVerifier.create(orderService.createOrders(Flux.just(order1, order2, order3)))
+                .expectNext(new BatchItemResult(0, BatchItemResult.Status.CREATED, "id-Producto 1", null))
+                .expectNext(new BatchItemResult(1, BatchItemResult.Status.CREATED, "id-Producto 2", null))
+                .expectNext(new BatchItemResult(2, BatchItemResult.Status.CREATED, "id-Producto 3", null))
+                .verifyComplete();
+
+        verify(orderRepository, times(2)).saveAll(anyList());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrders_whenChunkFails_shouldReportPerItemResults() {
+        // Given
+        Order valid = new Order(null, "Valido", 1, new BigDecimal("10.00"), null);
+        Order invalid = new Order(null, "Invalido", 1, new BigDecimal("10.00"), null);
+        Order saved = new Order("1", "Valido", 1, new BigDecimal("10.00"), LocalDateTime.now());
+
+        when(orderRepository.saveAll(anyList())).thenThrow(new IllegalStateException("chunk failed"));
+        when(orderRepository.save(valid)).thenReturn(saved);
+        when(orderRepository.save(invalid)).thenThrow(new IllegalStateException("bad order"));
+
+        // When / Then
+        StepVerifier.create(orderService.createOrders(Flux.just(valid, invalid)))
+                .expectNext(new BatchItemResult(0, BatchItemResult.Status.CREATED, "1", null))
+                .expectNext(new BatchItemResult(1, BatchItemResult.Status.FAILED, null, "bad order"))
+                .verifyComplete();
+    }
+
     @Test
     void updateOrder_whenOrderExists_shouldUpdateAndReturnOrder() {
         // Given
         Order updatedOrder = new Order("1", "Producto Actualizado", 5, new BigDecimal("49.99"), LocalDateTime.now());
 
-        when(orderRepository.existsById("1")).thenReturn(true);
-        when(orderRepository.save(any(Order.class))).thenReturn(updatedOrder);
+        when(orderRepository.updateReturning("1", updatedOrder)).thenReturn(Optional.of(updatedOrder));
 
         // When
         Mono<Order> result = orderService.updateOrder("1", updatedOrder);
 
         // Then
         StepVerifier.create(result)
-                .expectNext(updatedOrder)
+                .expectNextMatches(order -> order.getId().equals("1")
+                        && order.getProductName().equals("Producto Actualizado")
+                        && order.getQuantity() == 5)
                 .verifyComplete();
 
-        verify(orderRepository).existsById("1");
-        verify(orderRepository).save(updatedOrder);
+        verify(orderRepository).updateReturning("1", updatedOrder);
+        verify(orderRepository, never()).findById(any());
+        verify(orderRepository, never()).save(any());
     }
 
     @Test
@@ -130,7 +280,7 @@ public class OrderServiceTest {
         // Given
         Order updatedOrder = new Order("999", "No Existe", 1, new BigDecimal("10.00"), LocalDateTime.now());
 
-        when(orderRepository.existsById("999")).thenReturn(false);
+        when(orderRepository.updateReturning("999", updatedOrder)).thenReturn(Optional.empty());
 
         // When
         Mono<Order> result = orderService.updateOrder("999", updatedOrder);
@@ -139,15 +289,42 @@ public class OrderServiceTest {
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(orderRepository).existsById("999");
+        verify(orderRepository).updateReturning("999", updatedOrder);
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void updateOrder_withStaleVersion_shouldFailWithOptimisticLockingFailure() {
+        // Given
+        Order staleOrder = new Order("1", "Producto Actualizado", 5, new BigDecimal("49.99"), LocalDateTime.now(), 3L);
+        when(orderRepository.updateReturning("1", staleOrder))
+                .thenThrow(new OptimisticLockingFailureException("Order 1 was modified concurrently"));
+
+        // When / Then
+        StepVerifier.create(orderService.updateOrder("1", staleOrder))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    @Test
+    void mutations_shouldBePublishedToTheChangeFeed() {
+        // Given
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderRepository.removeById("1")).thenReturn(1);
+
+        // When / Then
+        StepVerifier.create(orderService.getChanges(0L).take(2))
+                .then(() -> orderService.createOrder(testOrder).block())
+                .then(() -> orderService.deleteOrder("1").block())
+                .expectNextMatches(change -> change.type() == OrderChange.Type.CREATED && change.order() == testOrder)
+                .expectNextMatches(change -> change.type() == OrderChange.Type.DELETED && change.id().equals("1"))
+                .verifyComplete();
+    }
+
     @Test
     void deleteOrder_whenOrderExists_shouldDeleteAndReturnEmptyMono() {
         // Given
-        when(orderRepository.existsById("1")).thenReturn(true);
-        doNothing().when(orderRepository).deleteById("1");
+        when(orderRepository.removeById("1")).thenReturn(1);
 
         // When
         Mono<Void> result = orderService.deleteOrder("1");
@@ -156,14 +333,14 @@ public class OrderServiceTest {
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(orderRepository).existsById("1");
-        verify(orderRepository).deleteById("1");
+        verify(orderRepository).removeById("1");
+        verify(orderRepository, never()).existsById(any());
     }
 
     @Test
     void deleteOrder_whenOrderDoesNotExist_shouldReturnEmptyMono() {
         // Given
-        when(orderRepository.existsById("999")).thenReturn(false);
+        when(orderRepository.removeById("999")).thenReturn(0);
 
         // When
         Mono<Void> result = orderService.deleteOrder("999");
@@ -174,7 +351,6 @@ public class OrderServiceTest {
                         throwable instanceof NoSuchElementException)
                 .verify();
 
-        verify(orderRepository).existsById("999");
-        verify(orderRepository, never()).deleteById(any());
+        verify(orderRepository).removeById("999");
     }
 }
\ No newline at end of file
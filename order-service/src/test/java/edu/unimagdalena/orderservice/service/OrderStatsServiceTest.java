@@ -0,0 +1,69 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.dto.OrderStats;
+import edu.unimagdalena.orderservice.repository.OrderRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderStatsServiceTest {
+
+    @Mock
+    private OrderRollupRepository orderRollupRepository;
+
+    @Spy
+    private Scheduler blockingScheduler = Schedulers.immediate();
+
+    @InjectMocks
+    private OrderStatsService orderStatsService;
+
+    @Test
+    void getStats_shouldReadRollupsForTheRequestedBucket() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        OrderStats stats = new OrderStats(from, "Producto Test", new BigDecimal("59.98"), 2);
+        when(orderRollupRepository.findStats(OrderStats.Bucket.DAY, from, to)).thenReturn(List.of(stats));
+
+        // When / Then
+        StepVerifier.create(orderStatsService.getStats(from, to, "day"))
+                .expectNext(stats)
+                .verifyComplete();
+    }
+
+    @Test
+    void getStats_withUnknownBucket_shouldFail() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        StepVerifier.create(orderStatsService.getStats(from, from.plusDays(1), "week"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(orderRollupRepository);
+    }
+
+    @Test
+    void getStats_whenFromIsNotBeforeTo_shouldFail() {
+        LocalDateTime now = LocalDateTime.now();
+
+        StepVerifier.create(orderStatsService.getStats(now, now, "hour"))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(orderRollupRepository);
+    }
+}
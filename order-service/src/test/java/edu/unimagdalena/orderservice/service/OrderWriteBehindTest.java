@@ -0,0 +1,179 @@
+package edu.unimagdalena.orderservice.service;
+
+import edu.unimagdalena.orderservice.config.OrderProperties;
+import edu.unimagdalena.orderservice.entity.Order;
+import edu.unimagdalena.orderservice.repository.OrderStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderWriteBehindTest {
+
+    @Mock
+    private OrderStore orderStore;
+
+    private OrderProperties orderProperties;
+
+    private OrderWriteBehind orderWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        orderProperties = new OrderProperties();
+        orderProperties.getWriteBehind().setEnabled(true);
+        orderProperties.getWriteBehind().setMaxBatch(2);
+        orderProperties.getWriteBehind().setMaxDelay(Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (orderWriteBehind != null) {
+            orderWriteBehind.destroy();
+        }
+    }
+
+    @Test
+    void submit_shouldCommitConcurrentOrdersAsOneGroup() {
+        // Given
+        Order first = new Order("1", "Producto 1", 1, new BigDecimal("10.00"), null);
+        Order second = new Order("2", "Producto 2", 2, new BigDecimal("20.00"), null);
+        when(orderStore.createAll(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Order>>getArgument(0)));
+        orderWriteBehind = new OrderWriteBehind(orderStore, orderProperties);
+
+        // When / Then
+        StepVerifier.create(Flux.merge(orderWriteBehind.submit(first), orderWriteBehind.submit(second)))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        verify(orderStore, times(1)).createAll(List.of(first, second));
+        verify(orderStore, never()).create(any());
+    }
+
+    @Test
+    void submit_shouldFlushAPartialGroupAfterMaxDelay() {
+        // Given
+        Order order = new Order("1", "Producto 1", 1, new BigDecimal("10.00"), null);
+        when(orderStore.createAll(anyList())).thenAnswer(invocation -> Flux.fromIterable(invocation.<List<Order>>getArgument(0)));
+        orderWriteBehind = new OrderWriteBehind(orderStore, orderProperties);
+
+        // When / Then
+        StepVerifier.create(orderWriteBehind.submit(order))
+                .expectNext(order)
+                .verifyComplete();
+
+        verify(orderStore).createAll(List.of(order));
+    }
+
+    @Test
+    void submit_whenGroupFails_shouldOnlyFailTheOffendingOrder() {
+        // Given
+        Order valid = new Order("1", "Producto 1", 1, new BigDecimal("10.00"), null);
+        Order invalid = new Order("2", null, null, null, null);
+        when(orderStore.createAll(anyList())).thenReturn(Flux.error(new IllegalStateException("batch failed")));
+        when(orderStore.create(valid)).thenReturn(Mono.just(valid));
+        when(orderStore.create(invalid)).thenReturn(Mono.error(new IllegalStateException("bad order")));
+        orderWriteBehind = new OrderWriteBehind(orderStore, orderProperties);
+
+        // When
+        Mono<Order> validResult = orderWriteBehind.submit(valid).cache();
+        Mono<Order> invalidResult = orderWriteBehind.submit(invalid).cache();
+        validResult.subscribe(order -> { }, error -> { });
+        invalidResult.subscribe(order -> { }, error -> { });
+
+        // Then
+        StepVerifier.create(validResult)
+                .expectNext(valid)
+                .verifyComplete();
+        StepVerifier.create(invalidResult)
+                .expectErrorMessage("bad order")
+                .verify();
+    }
+
+    @Test
+    void submit_whenQueueIsFull_shouldReject() {
+        // Given: a commit that does not finish, as when the database cannot keep up
+        Sinks.Empty<Void> commitDone = Sinks.empty();
+        when(orderStore.createAll(anyList())).thenAnswer(invocation ->
+                commitDone.asMono().thenMany(Flux.fromIterable(invocation.<List<Order>>getArgument(0))));
+        orderProperties.getWriteBehind().setMaxBatch(1);
+        orderProperties.getWriteBehind().setQueueCapacity(1);
+        orderWriteBehind = new OrderWriteBehind(orderStore, orderProperties);
+        Order order = new Order("1", "Producto 1", 1, new BigDecimal("10.00"), null);
+
+        // When / Then
+        StepVerifier.create(Flux.range(0, 256).flatMap(i -> orderWriteBehind.submit(order)))
+                .expectError(RejectedExecutionException.class)
+                .verify();
+        commitDone.tryEmitEmpty();
+    }
+
+    @Test
+    void submit_fromManyThreads_shouldCommitEveryOrderOnce() throws InterruptedException {
+        // Given
+        List<Order> committed = Collections.synchronizedList(new ArrayList<>());
+        when(orderStore.createAll(anyList())).thenAnswer(invocation -> {
+            List<Order> group = invocation.getArgument(0);
+            committed.addAll(group);
+            return Flux.fromIterable(group);
+        });
+        orderProperties.getWriteBehind().setMaxBatch(64);
+        orderWriteBehind = new OrderWriteBehind(orderStore, orderProperties);
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch done = new CountDownLatch(threads * perThread);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Order order = new Order(thread + "-" + i, "Producto", 1, new BigDecimal("10.00"), null);
+                    orderWriteBehind.submit(order).subscribe(saved -> done.countDown());
+                }
+            });
+        }
+
+        // Then
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        assertThat(committed).hasSize(threads * perThread)
+                .extracting(Order::getId)
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void submit_whenDisabled_shouldFail() {
+        // Given
+        orderProperties.getWriteBehind().setEnabled(false);
+        orderWriteBehind = new OrderWriteBehind(orderStore, orderProperties);
+
+        // When / Then
+        StepVerifier.create(orderWriteBehind.submit(new Order("1", "Producto 1", 1, new BigDecimal("10.00"), null)))
+                .expectError(IllegalStateException.class)
+                .verify();
+        verifyNoInteractions(orderStore);
+    }
+}
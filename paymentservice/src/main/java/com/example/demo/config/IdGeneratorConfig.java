@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import edu.unimagdalena.commons.IdGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public IdGenerator idGenerator(PaymentProperties paymentProperties) {
+        return new IdGenerator(paymentProperties.getId().getStrategy());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import edu.unimagdalena.commons.IdGenerator;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "payment")
+public class PaymentProperties {
+
+    private final Id id = new Id();
+
+    @Data
+    public static class Id {
+        /**
+         * How primary keys of new payments are generated.
+         */
+        private IdGenerator.Strategy strategy = IdGenerator.Strategy.RANDOM;
+    }
+}
@@ -3,7 +3,9 @@ package com.example.demo.controller;
 import com.example.demo.entity.Payment;
 import com.example.demo.service.PaymentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -41,4 +43,9 @@ public class PaymentController {
     public Mono<Void> deletePayment(@PathVariable String id) {
         return paymentService.deletePayment(id);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
 }
\ No newline at end of file
@@ -3,9 +3,11 @@ package com.example.demo.entity;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
@@ -23,4 +25,12 @@ public class Payment {
 
 
     private BigDecimal amount;
+
+    /**
+     * Optimistic lock column. {@code PaymentService} sets the id before saving, so a {@code null}
+     * version is what tells Spring Data the payment is new and lets it INSERT without selecting first.
+     */
+    @Version
+    @ColumnDefault("0")
+    private Long version;
 }
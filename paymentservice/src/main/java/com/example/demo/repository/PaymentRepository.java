@@ -2,8 +2,22 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, String> {
-}
\ No newline at end of file
+public interface PaymentRepository extends JpaRepository<Payment, String>, PaymentRepositoryCustom {
+
+    /**
+     * Deletes the payment without loading it into the persistence context first.
+     *
+     * @return 1 if the payment existed, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Payment p where p.id = :id")
+    int removeById(@Param("id") String id);
+}
@@ -0,0 +1,22 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Payment;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Sets the order and amount of the payment with the given id and returns the row as written, in
+     * one round trip rather than a select followed by a merge. A version in {@code changes} is checked
+     * in the {@code WHERE} clause; only when it fails to match is the payment looked up again, to tell
+     * a stale version from a missing payment.
+     *
+     * @return the updated payment, or empty when no payment has the given id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the payment exists but its
+     *                                                                   version differs
+     */
+    @Transactional
+    Optional<Payment> updateReturning(String id, Payment changes);
+}
@@ -0,0 +1,41 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private static final String UPDATE = "UPDATE payments SET order_id = :orderId, amount = :amount,"
+            + " version = version + 1 WHERE id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Payment> updateReturning(String id, Payment changes) {
+        boolean checkVersion = changes.getVersion() != null;
+        NativeQuery<Payment> query = entityManager.unwrap(Session.class)
+                .createNativeQuery(UPDATE + (checkVersion ? " AND version = :version" : "") + " RETURNING *", Payment.class);
+        query.setParameter("id", id, StandardBasicTypes.STRING)
+                .setParameter("orderId", changes.getOrderId(), StandardBasicTypes.LONG)
+                .setParameter("amount", changes.getAmount(), StandardBasicTypes.BIG_DECIMAL);
+        if (checkVersion) {
+            query.setParameter("version", changes.getVersion(), StandardBasicTypes.LONG);
+        }
+        List<Payment> updated = query.getResultList();
+        if (updated.isEmpty() && checkVersion && entityManager.find(Payment.class, id) != null) {
+            throw new OptimisticLockingFailureException("Payment " + id + " was modified concurrently");
+        }
+        return updated.stream().findFirst();
+    }
+}
@@ -2,50 +2,45 @@ package com.example.demo.service;
 
 import com.example.demo.entity.Payment;
 import com.example.demo.repository.PaymentRepository;
+import edu.unimagdalena.commons.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
-
-import java.util.UUID;
+import reactor.core.scheduler.Scheduler;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final IdGenerator idGenerator;
+    private final Scheduler blockingScheduler;
 
     public Flux<Payment> getAllPayments() {
         return Flux.defer(() -> Flux.fromIterable(paymentRepository.findAll()))
-                .subscribeOn(Schedulers.boundedElastic());
+                .subscribeOn(blockingScheduler);
     }
 
     public Mono<Payment> getPaymentById(String id) {
         return Mono.defer(() -> Mono.justOrEmpty(paymentRepository.findById(id)))
-                .subscribeOn(Schedulers.boundedElastic());
+                .subscribeOn(blockingScheduler);
     }
 
     public Mono<Payment> createPayment(Payment payment) {
-        payment.setId(UUID.randomUUID().toString());
+        payment.setId(idGenerator.nextId());
+        payment.setVersion(null);
         return Mono.defer(() -> Mono.just(paymentRepository.save(payment)))
-                .subscribeOn(Schedulers.boundedElastic());
+                .subscribeOn(blockingScheduler);
     }
 
     public Mono<Payment> updatePayment(String id, Payment payment) {
-        return Mono.defer(() -> {
-            if (paymentRepository.existsById(id)) {
-                payment.setId(id);
-                return Mono.just(paymentRepository.save(payment));
-            }
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic());
+        return Mono.defer(() -> Mono.justOrEmpty(paymentRepository.updateReturning(id, payment)))
+                .subscribeOn(blockingScheduler);
     }
 
     public Mono<Void> deletePayment(String id) {
-        return Mono.defer(() -> {
-            paymentRepository.deleteById(id);
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        return Mono.fromRunnable(() -> paymentRepository.removeById(id))
+                .subscribeOn(blockingScheduler).then();
     }
 }
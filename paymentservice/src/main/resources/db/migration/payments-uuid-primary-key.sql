@@ -0,0 +1,4 @@
+-- Converts payments.id from varchar to a native 16-byte uuid column.
+-- Run once, during a maintenance window: the ALTER rewrites the table and rebuilds the primary key.
+-- Afterwards add stringtype=unspecified to the JDBC URL so Hibernate can keep binding the String id.
+ALTER TABLE payments ALTER COLUMN id TYPE uuid USING id::uuid;
@@ -0,0 +1,145 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Payment;
+import edu.unimagdalena.commons.IdGenerator;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PaymentRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgreSQLContainer = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("payment-test")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
+        registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
+        registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldInsertNewPaymentWithSingleStatement() {
+        // given
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        Payment payment = new Payment(UUID.randomUUID().toString(), 1L, new BigDecimal("25.00"), null);
+
+        // when
+        paymentRepository.save(payment);
+        entityManager.flush();
+
+        // then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void shouldStoreUuidV7IdsInCreationOrder() {
+        // given
+        IdGenerator idGenerator = new IdGenerator(IdGenerator.Strategy.UUID_V7);
+        List<String> ids = new ArrayList<>();
+        for (long orderId = 1; orderId <= 50; orderId++) {
+            Payment payment = new Payment(idGenerator.nextId(), orderId, new BigDecimal("10.00"), null);
+            ids.add(paymentRepository.save(payment).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        List<Payment> byId = paymentRepository.findAll(Sort.by("id"));
+
+        // then
+        assertThat(byId).extracting(Payment::getId).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void shouldUpdateWithVersionCheck() {
+        // given
+        String id = UUID.randomUUID().toString();
+        paymentRepository.save(new Payment(id, 7L, new BigDecimal("40.00"), null));
+        entityManager.flush();
+        entityManager.clear();
+        Payment changes = new Payment(null, 7L, new BigDecimal("45.50"), 0L);
+
+        // when
+        Optional<Payment> updated = paymentRepository.updateReturning(id, changes);
+
+        // then
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getAmount()).isEqualByComparingTo("45.50");
+        assertThat(updated.get().getVersion()).isEqualTo(1L);
+        entityManager.clear();
+        assertThatThrownBy(() -> paymentRepository.updateReturning(id, changes))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void shouldUpdateWithoutVersionAndReportMissingPayment() {
+        // given
+        String id = UUID.randomUUID().toString();
+        paymentRepository.save(new Payment(id, 8L, new BigDecimal("12.00"), null));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        Optional<Payment> updated = paymentRepository.updateReturning(id, new Payment(null, 9L, new BigDecimal("12.00"), null));
+
+        // then
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getOrderId()).isEqualTo(9L);
+        assertThat(paymentRepository.updateReturning("missing", new Payment(null, 9L, BigDecimal.ONE, 0L))).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveByIdWithSingleStatement() {
+        // given
+        String id = UUID.randomUUID().toString();
+        paymentRepository.save(new Payment(id, 3L, new BigDecimal("5.00"), null));
+        entityManager.flush();
+
+        // when
+        int removed = paymentRepository.removeById(id);
+
+        // then
+        assertThat(removed).isEqualTo(1);
+        assertThat(paymentRepository.removeById(id)).isZero();
+    }
+}
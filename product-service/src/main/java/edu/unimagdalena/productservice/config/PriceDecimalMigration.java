@@ -0,0 +1,38 @@
+package edu.unimagdalena.productservice.config;
+
+import edu.unimagdalena.productservice.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rewrites prices that were stored as strings, before {@code price} was mapped to Decimal128, with a
+ * single server-side {@code $toDecimal} update. Documents already migrated do not match, so running
+ * it again is a no-op.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.migration.decimal-price", havingValue = "true", matchIfMissing = true)
+public class PriceDecimalMigration implements ApplicationRunner {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("price").type(JsonSchemaObject.Type.STRING)),
+                        AggregationUpdate.update().set("price").toValue(ConvertOperators.valueOf("price").convertToDecimal()),
+                        Product.class)
+                .block();
+    }
+}
@@ -0,0 +1,28 @@
+package edu.unimagdalena.productservice.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.unimagdalena.productservice.entity.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ProductCacheConfig {
+
+    /**
+     * Caffeine evicts by W-TinyLFU, so a burst of one-off ids does not flush the hot products.
+     * Hits, misses and evictions are published as {@code cache.*} metrics tagged {@code cache=products}.
+     */
+    @Bean
+    public AsyncCache<String, Product> productCache(ProductProperties properties, MeterRegistry meterRegistry) {
+        AsyncCache<String, Product> cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .expireAfterWrite(properties.getCache().getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "products");
+        return cache;
+    }
+}
@@ -0,0 +1,35 @@
+package edu.unimagdalena.productservice.config;
+
+import edu.unimagdalena.productservice.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates the indexes declared on {@link Product} (such as the text index behind
+ * GET /api/products/search), since automatic index creation is off by default. Creating an index
+ * that already exists is a no-op.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class ProductIndexInitializer implements ApplicationRunner {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        Flux.fromIterable(resolver.resolveIndexFor(Product.class))
+                .concatMap(indexOps::ensureIndex)
+                .blockLast();
+    }
+}
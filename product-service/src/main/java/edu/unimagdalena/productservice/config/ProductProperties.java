@@ -0,0 +1,85 @@
+package edu.unimagdalena.productservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "product")
+public class ProductProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Search search = new Search();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final Lookup lookup = new Lookup();
+
+    private final Listing listing = new Listing();
+
+    @Data
+    public static class Cache {
+        /**
+         * Products kept in the read cache in front of GET /api/products/{id}; colder entries are evicted first.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Upper bound on how long a cached product is served before it is read from Mongo again.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * Upper bound for the {@code limit} of GET /api/products/search.
+         */
+        private int maxLimit = 100;
+    }
+
+    @Data
+    public static class Bulk {
+        /**
+         * Products sent to Mongo per unordered bulkWrite by POST /api/products/bulk.
+         */
+        private int chunkSize = 1000;
+    }
+
+    @Data
+    public static class Snapshot {
+        /**
+         * Keep a binary snapshot of the catalog on disk and serve reads from it right after a restart.
+         */
+        private boolean enabled = false;
+
+        private Path path = Path.of("data", "product-catalog.snapshot");
+
+        /**
+         * How often the snapshot is rewritten from Mongo; it is also written on shutdown.
+         */
+        private Duration interval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Lookup {
+        /**
+         * Most ids accepted by one multi-get (GET /api/products?ids= or POST /api/products/lookup).
+         */
+        private int maxIds = 1000;
+    }
+
+    @Data
+    public static class Listing {
+        /**
+         * Tag GET /api/products with the catalog version and answer a matching {@code If-None-Match}
+         * with 304. The version is counted per instance, so enable it on a single replica only.
+         */
+        private boolean etag = false;
+    }
+}
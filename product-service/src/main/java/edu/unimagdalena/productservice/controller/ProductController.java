@@ -1,15 +1,25 @@
 package edu.unimagdalena.productservice.controller;
 
+import edu.unimagdalena.productservice.dto.BulkItemResult;
+import edu.unimagdalena.productservice.dto.ProductFields;
+import edu.unimagdalena.productservice.dto.ProductLookupResult;
 import edu.unimagdalena.productservice.entity.Product;
 import edu.unimagdalena.productservice.service.ProductService;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
@@ -21,14 +31,51 @@ public class ProductController {
     }
 
 
+    /**
+     * Tagged with the catalog version, read before the query starts, when {@code product.listing.etag}
+     * is enabled; a matching {@code If-None-Match} is answered with 304 without subscribing to the listing. With {@code fields} the products are
+     * written as {@link ProductFields}, leaving out the fields that were not loaded.
+     */
     @GetMapping
-    public Flux<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<Flux<?>> getAllProducts(@RequestParam(required = false) BigDecimal minPrice,
+                                                  @RequestParam(required = false) BigDecimal maxPrice,
+                                                  @RequestParam(required = false) String sort,
+                                                  @RequestParam(required = false) Set<String> fields) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        productService.getCatalogVersion().ifPresent(ok::eTag);
+        if (fields != null) {
+            return ok.body(productService.getAllProducts(minPrice, maxPrice, sort, fields).map(ProductFields::of));
+        }
+        Flux<Product> products = minPrice == null && maxPrice == null && sort == null
+                ? productService.getAllProducts()
+                : productService.getAllProducts(minPrice, maxPrice, sort, null);
+        return ok.body(products);
+    }
+
+    @GetMapping(params = "ids", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductLookupResult> getProductsByIds(@RequestParam List<String> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    /**
+     * Same as {@code GET ?ids=} for id lists too long for a URL; the body is a JSON array of ids.
+     */
+    @PostMapping(value = "/lookup", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductLookupResult> lookupProducts(@RequestBody List<String> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
+    @GetMapping("/search")
+    public Flux<Product> searchProducts(@RequestParam String q,
+                                        @RequestParam(defaultValue = "20") int limit,
+                                        @RequestParam(defaultValue = "0") long offset) {
+        return productService.searchProducts(q, limit, offset);
     }
 
     @GetMapping("/{id}")
-    public Mono<Product> getProductById(@PathVariable String id) {
-        return productService.getProductById(id);
+    public Mono<ResponseEntity<Product>> getProductById(@PathVariable String id) {
+        return productService.getProductById(id)
+                .map(ProductController::withETag);
     }
 
     @PostMapping
@@ -37,9 +84,17 @@ public class ProductController {
         return productService.createProduct(product);
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BulkItemResult> upsertProducts(@RequestBody Flux<Product> products) {
+        return productService.upsertProducts(products);
+    }
+
     @PutMapping("/{id}")
-    public Mono<Product> updateProduct(@PathVariable String id, @RequestBody Product product) {
-        return productService.updateProduct(id, product);
+    public Mono<ResponseEntity<Product>> updateProduct(@PathVariable String id, @RequestBody Product product) {
+        return productService.updateProduct(id, product)
+                .map(ProductController::withETag);
     }
 
     @DeleteMapping("/{id}")
@@ -47,4 +102,26 @@ public class ProductController {
     public Mono<Void> deleteProduct(@PathVariable String id) {
         return productService.deleteProduct(id);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    /**
+     * Strong validator from the document version, which every write to the product increments; a
+     * GET whose {@code If-None-Match} matches it is answered with 304.
+     */
+    private static ResponseEntity<Product> withETag(Product product) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (product.getVersion() != null) {
+            response.eTag(product.getId() + "." + product.getVersion());
+        }
+        return response.body(product);
+    }
 }
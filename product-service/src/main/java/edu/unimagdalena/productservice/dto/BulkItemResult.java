@@ -0,0 +1,26 @@
+package edu.unimagdalena.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one element of a bulk request, identified by its position in the request body.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(long index, Status status, String id, String error) {
+
+    public enum Status {
+        CREATED, UPDATED, FAILED
+    }
+
+    public static BulkItemResult created(long index, String id) {
+        return new BulkItemResult(index, Status.CREATED, id, null);
+    }
+
+    public static BulkItemResult updated(long index, String id) {
+        return new BulkItemResult(index, Status.UPDATED, id, null);
+    }
+
+    public static BulkItemResult failed(long index, String id, String error) {
+        return new BulkItemResult(index, Status.FAILED, id, error);
+    }
+}
@@ -0,0 +1,20 @@
+package edu.unimagdalena.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.unimagdalena.productservice.entity.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * A product of the {@code GET /api/products?fields=} listing. Only the requested fields are loaded,
+ * so the others are left out of the JSON instead of being written as {@code null}; full products
+ * keep serializing every field.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductFields(String id, String name, BigDecimal price, String description, Long version) {
+
+    public static ProductFields of(Product product) {
+        return new ProductFields(product.getId(), product.getName(), product.getPrice(), product.getDescription(),
+                product.getVersion());
+    }
+}
@@ -0,0 +1,20 @@
+package edu.unimagdalena.productservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import edu.unimagdalena.productservice.entity.Product;
+
+/**
+ * One requested id of a multi-get, with the product or a {@code missing} marker when no product has
+ * that id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductLookupResult(String id, Product product, Boolean missing) {
+
+    public static ProductLookupResult found(Product product) {
+        return new ProductLookupResult(product.getId(), product, null);
+    }
+
+    public static ProductLookupResult missing(String id) {
+        return new ProductLookupResult(id, null, true);
+    }
+}
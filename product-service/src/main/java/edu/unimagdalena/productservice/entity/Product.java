@@ -6,13 +6,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 
 
 
 @Document(collection = "products")
+@CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}")
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,9 +28,22 @@ public class Product {
     @Id
     private String id;
 
+    @TextIndexed(weight = 3)
     private String name;
+    /**
+     * Stored as Decimal128 rather than the default string form, so it compares and sorts numerically.
+     */
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal price;
+    @TextIndexed
     private String description;
 
+    /**
+     * Incremented on every update; a client that sends it back gets a 409 instead of overwriting a
+     * newer revision.
+     */
+    @Version
+    private Long version;
+
 
 }
\ No newline at end of file
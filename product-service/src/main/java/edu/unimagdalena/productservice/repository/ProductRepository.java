@@ -1,9 +1,9 @@
 package edu.unimagdalena.productservice.repository;
 
 import edu.unimagdalena.productservice.entity.Product;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends ReactiveMongoRepository<Product, String>, ProductRepositoryCustom {
 }
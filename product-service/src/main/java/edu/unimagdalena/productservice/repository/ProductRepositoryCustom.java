@@ -0,0 +1,48 @@
+package edu.unimagdalena.productservice.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import edu.unimagdalena.productservice.entity.Product;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Copies the mutable fields of {@code changes} onto the product with the given id and bumps its
+     * version with a single {@code findAndModify}. When {@code changes} carries a version the
+     * document only matches while it still has that version.
+     *
+     * @return the updated product, or empty when no product has the given id; fails with
+     * {@link org.springframework.dao.OptimisticLockingFailureException} if the product exists but its
+     * version differs
+     */
+    Mono<Product> updateReturning(String id, Product changes);
+
+    /**
+     * Full-text search over name and description through the {@code products} text index, best
+     * matches first.
+     */
+    Flux<Product> search(String text, int limit, long offset);
+
+    /**
+     * Upserts every product by id with one unordered {@code bulkWrite}, overwriting the mutable
+     * fields and bumping the version without a version check. Products must already carry an id.
+     *
+     * @return the driver result; when some writes fail the others still apply and the call fails
+     * with a {@link com.mongodb.MongoBulkWriteException} holding the partial result and the errors
+     */
+    Mono<BulkWriteResult> upsertAll(List<Product> products);
+
+    /**
+     * Streams the products priced within {@code [minPrice, maxPrice]} in the given order, with only the
+     * given properties loaded. Either bound may be null; a null {@code fields} loads whole documents.
+     * The price filter and sort are served by the {@code (price, _id)} index and the projection is applied by
+     * Mongo, so omitted fields are never read or sent over the wire.
+     */
+    Flux<Product> findCatalog(BigDecimal minPrice, BigDecimal maxPrice, Sort sort, Set<String> fields);
+}
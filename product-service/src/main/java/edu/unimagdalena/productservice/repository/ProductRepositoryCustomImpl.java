@@ -0,0 +1,94 @@
+package edu.unimagdalena.productservice.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import edu.unimagdalena.productservice.entity.Product;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Product> updateReturning(String id, Product changes) {
+        Criteria criteria = Criteria.where("id").is(id);
+        if (changes.getVersion() != null) {
+            criteria = criteria.and("version").is(changes.getVersion());
+        }
+        Mono<Product> updated = mongoTemplate.findAndModify(Query.query(criteria), overwrite(changes),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+        if (changes.getVersion() == null) {
+            return updated;
+        }
+        return updated.switchIfEmpty(mongoTemplate.exists(Query.query(Criteria.where("id").is(id)), Product.class)
+                .flatMap(exists -> exists
+                        ? Mono.error(new OptimisticLockingFailureException("Product " + id + " was modified concurrently"))
+                        : Mono.empty()));
+    }
+
+    @Override
+    public Flux<Product> search(String text, int limit, long offset) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .skip(offset)
+                .limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Mono<BulkWriteResult> upsertAll(List<Product> products) {
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        products.forEach(product -> bulk.upsert(Query.query(Criteria.where("id").is(product.getId())), overwrite(product)));
+        return bulk.execute()
+                .onErrorMap(e -> e.getCause() instanceof MongoBulkWriteException, Throwable::getCause);
+    }
+
+    private static Update overwrite(Product changes) {
+        return new Update()
+                .set("name", changes.getName())
+                .set("price", changes.getPrice() == null ? null : new Decimal128(changes.getPrice()))
+                .set("description", changes.getDescription())
+                .inc("version", 1);
+    }
+
+    @Override
+    public Flux<Product> findCatalog(BigDecimal minPrice, BigDecimal maxPrice, Sort sort, Set<String> fields) {
+        Query query = new Query().with(sort);
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price = price.gte(new Decimal128(minPrice));
+            }
+            if (maxPrice != null) {
+                price = price.lte(new Decimal128(maxPrice));
+            }
+            query.addCriteria(price);
+        }
+        if (fields != null) {
+            query.fields().include(fields.toArray(String[]::new));
+            if (!fields.contains("id")) {
+                query.fields().exclude("id");
+            }
+        }
+        return mongoTemplate.find(query, Product.class);
+    }
+}
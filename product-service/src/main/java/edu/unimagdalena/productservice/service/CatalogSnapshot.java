@@ -0,0 +1,285 @@
+package edu.unimagdalena.productservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import edu.unimagdalena.productservice.config.ProductProperties;
+import edu.unimagdalena.productservice.entity.Product;
+import edu.unimagdalena.productservice.repository.ProductRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary snapshot of the catalog, enabled with {@code product.snapshot.enabled}. On startup the last
+ * snapshot is memory-mapped and serves {@link ProductService#getProductById} and
+ * {@link ProductService#getAllProducts()} while a fresh one is written from Mongo in the background;
+ * once that finishes the mapping is dropped and reads go back to Mongo and the cache, and the
+ * {@link CatalogVersion} is bumped so that no listing ETag handed out from the snapshot still matches.
+ * The snapshot is then rewritten every {@code interval} and on shutdown, on the blocking scheduler.
+ * <p>
+ * File layout: a magic number and format version, followed by one {@code [int length][record]} entry
+ * per product. Only the ids are decoded when the file is mapped; records are decoded on lookup.
+ */
+@Component
+public class CatalogSnapshot implements ApplicationRunner, DisposableBean {
+
+    private static final int MAGIC = 0x50524f44;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+
+    private final ProductRepository productRepository;
+    private final AsyncCache<String, Product> productCache;
+    private final CatalogVersion catalogVersion;
+    private final Scheduler blockingScheduler;
+    private final ProductProperties.Snapshot config;
+
+    /**
+     * Ids written through this instance since the snapshot was mapped; they are no longer served from it.
+     */
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+
+    private volatile Mapped mapped;
+    private volatile Disposable refresh;
+
+    public CatalogSnapshot(ProductRepository productRepository, AsyncCache<String, Product> productCache,
+                           CatalogVersion catalogVersion, Scheduler blockingScheduler,
+                           ProductProperties productProperties) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.catalogVersion = catalogVersion;
+        this.blockingScheduler = blockingScheduler;
+        this.config = productProperties.getSnapshot();
+        if (config.isEnabled() && Files.isRegularFile(config.getPath())) {
+            this.mapped = map(config.getPath());
+        }
+    }
+
+    /**
+     * Reconciles with Mongo in the background, then keeps rewriting the snapshot periodically.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        // a failed write keeps the previous file; the next period tries again
+        refresh = reconcile()
+                .thenMany(Flux.interval(config.getInterval())
+                        .onBackpressureDrop()
+                        .concatMap(tick -> write(productRepository.findAll()).onErrorResume(e -> Mono.empty())))
+                .subscribe();
+    }
+
+    /**
+     * Writes a fresh snapshot from Mongo, then stops serving from the mapped one, drops the cache
+     * entries that were loaded from it and moves the listing to a new version.
+     */
+    Mono<Void> reconcile() {
+        return write(productRepository.findAll())
+                .onErrorResume(e -> Mono.empty())
+                .then(Mono.fromRunnable(() -> {
+                    mapped = null;
+                    stale.clear();
+                    productCache.synchronous().invalidateAll();
+                    catalogVersion.increment();
+                }));
+    }
+
+    /**
+     * @return the product as of the mapped snapshot, or null if it is not served from the snapshot
+     */
+    public Product get(String id) {
+        Mapped current = mapped;
+        if (current == null || stale.contains(id)) {
+            return null;
+        }
+        Integer offset = current.offsets().get(id);
+        return offset == null ? null : current.read(offset);
+    }
+
+    /**
+     * True while the whole listing can be served from the snapshot, i.e. it is mapped and no product
+     * has been written through this instance since.
+     */
+    public boolean servesCatalog() {
+        return mapped != null && stale.isEmpty();
+    }
+
+    public Flux<Product> getAll() {
+        Mapped current = mapped;
+        if (current == null) {
+            return Flux.empty();
+        }
+        return Flux.fromIterable(current.offsets().values()).map(current::read);
+    }
+
+    /**
+     * Stops serving the given product from the snapshot after it was created, updated or deleted.
+     */
+    public void markStale(String id) {
+        if (mapped != null) {
+            stale.add(id);
+        }
+    }
+
+    /**
+     * Streams the products into a temporary file next to the snapshot and atomically replaces it.
+     */
+    public Mono<Void> write(Flux<Product> products) {
+        Path target = config.getPath();
+        return Mono.using(
+                        () -> {
+                            Path parent = target.toAbsolutePath().getParent();
+                            Files.createDirectories(parent);
+                            Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+                            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+                            out.writeInt(MAGIC);
+                            out.writeInt(FORMAT_VERSION);
+                            return new Output(temp, out);
+                        },
+                        output -> products.publishOn(blockingScheduler)
+                                .doOnNext(product -> writeRecord(output.stream(), product))
+                                .then(Mono.fromCallable(() -> {
+                                    output.stream().close();
+                                    return Files.move(output.path(), target,
+                                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                                })),
+                        output -> {
+                            try {
+                                output.stream().close();
+                                Files.deleteIfExists(output.path());
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (refresh != null) {
+            refresh.dispose();
+        }
+        write(productRepository.findAll()).block(Duration.ofSeconds(30));
+    }
+
+    /**
+     * @return the mapped snapshot, or null if the file is not a readable snapshot, which is then ignored
+     */
+    private static Mapped map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                return null;
+            }
+            Map<String, Integer> offsets = new LinkedHashMap<>();
+            int position = HEADER_LENGTH;
+            while (position < buffer.limit()) {
+                int length = buffer.getInt(position);
+                offsets.put(readString(buffer.slice(position + 4, length)), position);
+                position += 4 + length;
+            }
+            return new Mapped(buffer, offsets);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, Product product) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream record = new DataOutputStream(bytes);
+            writeString(record, product.getId());
+            writeString(record, product.getName());
+            writeString(record, product.getDescription());
+            record.writeBoolean(product.getPrice() != null);
+            if (product.getPrice() != null) {
+                byte[] unscaled = product.getPrice().unscaledValue().toByteArray();
+                record.writeInt(product.getPrice().scale());
+                record.writeInt(unscaled.length);
+                record.write(unscaled);
+            }
+            record.writeBoolean(product.getVersion() != null);
+            if (product.getVersion() != null) {
+                record.writeLong(product.getVersion());
+            }
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Mapped(MappedByteBuffer buffer, Map<String, Integer> offsets) {
+
+        Product read(int offset) {
+            ByteBuffer in = buffer.slice(offset + 4, buffer.getInt(offset));
+            Product product = new Product();
+            product.setId(readString(in));
+            product.setName(readString(in));
+            product.setDescription(readString(in));
+            if (in.get() != 0) {
+                int scale = in.getInt();
+                byte[] unscaled = new byte[in.getInt()];
+                in.get(unscaled);
+                product.setPrice(new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            if (in.get() != 0) {
+                product.setVersion(in.getLong());
+            }
+            return product;
+        }
+    }
+
+    private record Output(Path path, DataOutputStream stream) {
+    }
+}
@@ -0,0 +1,30 @@
+package edu.unimagdalena.productservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter bumped by every product write that goes through this service, used as the ETag of the
+ * product listing so a conditional GET is answered without querying Mongo. The start time keeps
+ * tags from a previous run from matching after a restart.
+ * <p>
+ * The counter lives in the memory of this instance and only sees the writes it serves, so behind
+ * more than one replica a tag handed out by one instance keeps matching on another after a write;
+ * it is only used when {@code product.listing.etag} is enabled on a single instance.
+ */
+@Component
+public class CatalogVersion {
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicLong counter = new AtomicLong();
+
+    public void increment() {
+        counter.incrementAndGet();
+    }
+
+    public String current() {
+        return epoch + "." + counter.get();
+    }
+}
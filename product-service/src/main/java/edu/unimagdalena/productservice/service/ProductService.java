@@ -1,55 +1,229 @@
 package edu.unimagdalena.productservice.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import edu.unimagdalena.productservice.config.ProductProperties;
+import edu.unimagdalena.productservice.dto.BulkItemResult;
+import edu.unimagdalena.productservice.dto.ProductLookupResult;
 import edu.unimagdalena.productservice.entity.Product;
 import edu.unimagdalena.productservice.repository.ProductRepository;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class ProductService {
 
+    private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "name", "price", "description", "version");
+
     private final ProductRepository productRepository;
+    private final AsyncCache<String, Product> productCache;
+    private final ProductProperties productProperties;
+    private final CatalogVersion catalogVersion;
+    private final CatalogSnapshot catalogSnapshot;
 
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, AsyncCache<String, Product> productCache,
+                          ProductProperties productProperties, CatalogVersion catalogVersion,
+                          CatalogSnapshot catalogSnapshot) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.productProperties = productProperties;
+        this.catalogVersion = catalogVersion;
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    /**
+     * Changes whenever a product is created, updated or deleted; see {@link CatalogVersion}. Empty
+     * unless {@code product.listing.etag} is enabled.
+     */
+    public Optional<String> getCatalogVersion() {
+        if (!productProperties.getListing().isEtag()) {
+            return Optional.empty();
+        }
+        return Optional.of(catalogVersion.current());
     }
 
 
+    /**
+     * Streams the collection from a Mongo cursor; batches are only fetched as the client consumes them.
+     * Right after a restart it is served from the {@link CatalogSnapshot} instead.
+     */
     public Flux<Product> getAllProducts() {
-        return Flux.defer(() -> Flux.fromIterable(productRepository.findAll()))
-                .subscribeOn(Schedulers.boundedElastic());
+        if (catalogSnapshot.servesCatalog()) {
+            return catalogSnapshot.getAll();
+        }
+        return productRepository.findAll();
+    }
+
+    /**
+     * Like {@link #getAllProducts()} but restricted to a price range, ordered by {@code price} or
+     * {@code -price}, and only loading the requested fields, e.g. {@code id,name,price} for list pages
+     * that do not need the description. Every argument is optional.
+     */
+    public Flux<Product> getAllProducts(BigDecimal minPrice, BigDecimal maxPrice, String sort, Set<String> fields) {
+        if (fields != null && (fields.isEmpty() || !PROJECTABLE_FIELDS.containsAll(fields))) {
+            return Flux.error(new IllegalArgumentException("fields must be a subset of " + PROJECTABLE_FIELDS));
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            return Flux.error(new IllegalArgumentException("minPrice must not be greater than maxPrice"));
+        }
+        Sort order;
+        if (sort == null) {
+            order = Sort.unsorted();
+        } else if (sort.equals("price")) {
+            order = Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+        } else if (sort.equals("-price")) {
+            order = Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id"));
+        } else {
+            return Flux.error(new IllegalArgumentException("sort must be price or -price"));
+        }
+        return productRepository.findCatalog(minPrice, maxPrice, order, fields);
     }
 
+    /**
+     * Read-through: concurrent misses for the same id share one Mongo lookup, and unknown ids are not cached.
+     */
     public Mono<Product> getProductById(String id) {
-        return Mono.defer(() -> Mono.justOrEmpty(productRepository.findById(id)))
-                .subscribeOn(Schedulers.boundedElastic());
+        return Mono.fromFuture(() -> productCache.get(id, (key, executor) -> {
+            Product snapshot = catalogSnapshot.get(key);
+            return snapshot != null
+                    ? CompletableFuture.completedFuture(snapshot)
+                    : productRepository.findById(key).toFuture();
+        }), true);
+    }
+
+    /**
+     * Resolves the ids in request order, with a missing marker for unknown ones. Cached products are
+     * served from the cache and all the others are read with a single {@code $in} query.
+     */
+    public Flux<ProductLookupResult> getProductsByIds(List<String> ids) {
+        if (ids.isEmpty() || ids.size() > productProperties.getLookup().getMaxIds()) {
+            return Flux.error(new IllegalArgumentException(
+                    "between 1 and " + productProperties.getLookup().getMaxIds() + " ids are required"));
+        }
+        return Mono.fromFuture(() -> productCache.getAll(ids, (keys, executor) -> {
+                    Map<String, Product> found = new HashMap<>();
+                    List<String> remaining = new ArrayList<>();
+                    for (String key : keys) {
+                        Product snapshot = catalogSnapshot.get(key);
+                        if (snapshot != null) {
+                            found.put(key, snapshot);
+                        } else {
+                            remaining.add(key);
+                        }
+                    }
+                    if (remaining.isEmpty()) {
+                        return CompletableFuture.completedFuture(found);
+                    }
+                    return productRepository.findAllById(remaining)
+                            .collectMap(Product::getId, Function.identity(), () -> found)
+                            .toFuture();
+                }), true)
+                .flatMapIterable(products -> ids.stream()
+                        .map(id -> products.containsKey(id)
+                                ? ProductLookupResult.found(products.get(id))
+                                : ProductLookupResult.missing(id))
+                        .toList());
+    }
+
+    public Flux<Product> searchProducts(String query, int limit, long offset) {
+        if (query == null || query.isBlank()) {
+            return Flux.error(new IllegalArgumentException("q must not be blank"));
+        }
+        if (limit < 1 || offset < 0) {
+            return Flux.error(new IllegalArgumentException("limit must be positive and offset not negative"));
+        }
+        int pageSize = Math.min(limit, productProperties.getSearch().getMaxLimit());
+        return productRepository.search(query, pageSize, offset);
     }
 
     public Mono<Product> createProduct(Product product) {
         product.setId(UUID.randomUUID().toString());
-        return Mono.defer(() -> Mono.just(productRepository.save(product)))
-                .subscribeOn(Schedulers.boundedElastic());
+        return productRepository.insert(product)
+                .doOnTerminate(() -> {
+                    catalogSnapshot.markStale(product.getId());
+                    catalogVersion.increment();
+                });
+    }
+
+    /**
+     * Upserts products in chunks of {@code product.bulk.chunk-size}, one unordered bulkWrite per
+     * chunk. Products without an id are created; a failing item does not stop the rest of its chunk.
+     */
+    public Flux<BulkItemResult> upsertProducts(Flux<Product> products) {
+        return products.index()
+                .buffer(productProperties.getBulk().getChunkSize())
+                .concatMap(this::upsertChunk);
     }
 
     public Mono<Product> updateProduct(String id, Product product) {
-        return Mono.defer(() -> {
-            if (productRepository.existsById(id)) {
-                product.setId(id);
-                return Mono.just(productRepository.save(product));
-            }
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic());
+        return productRepository.updateReturning(id, product)
+                .doOnTerminate(() -> evict(id));
     }
 
     public Mono<Void> deleteProduct(String id) {
-        return Mono.defer(() -> {
-            productRepository.deleteById(id);
-            return Mono.empty();
-        }).subscribeOn(Schedulers.boundedElastic()).then();
+        return productRepository.deleteById(id)
+                .doOnTerminate(() -> evict(id));
+    }
+
+    private void evict(String id) {
+        catalogSnapshot.markStale(id);
+        productCache.synchronous().invalidate(id);
+        catalogVersion.increment();
+    }
+
+    private Flux<BulkItemResult> upsertChunk(List<Tuple2<Long, Product>> chunk) {
+        List<Product> products = chunk.stream().map(Tuple2::getT2).toList();
+        products.stream()
+                .filter(product -> product.getId() == null)
+                .forEach(product -> product.setId(UUID.randomUUID().toString()));
+        return productRepository.upsertAll(products)
+                .map(result -> toResults(chunk, result, List.of()))
+                .onErrorResume(MongoBulkWriteException.class,
+                        e -> Mono.just(toResults(chunk, e.getWriteResult(), e.getWriteErrors())))
+                .doOnNext(results -> {
+                    products.forEach(product -> catalogSnapshot.markStale(product.getId()));
+                    productCache.synchronous().invalidateAll(products.stream().map(Product::getId).toList());
+                    catalogVersion.increment();
+                })
+                .flatMapIterable(Function.identity());
+    }
+
+    private static List<BulkItemResult> toResults(List<Tuple2<Long, Product>> chunk, BulkWriteResult result,
+                                                  List<BulkWriteError> errors) {
+        Set<Integer> created = result.getUpserts().stream()
+                .map(BulkWriteUpsert::getIndex)
+                .collect(Collectors.toSet());
+        Map<Integer, String> failed = errors.stream()
+                .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+        return IntStream.range(0, chunk.size())
+                .mapToObj(i -> {
+                    long index = chunk.get(i).getT1();
+                    String id = chunk.get(i).getT2().getId();
+                    if (failed.containsKey(i)) {
+                        return BulkItemResult.failed(index, id, failed.get(i));
+                    }
+                    return created.contains(i) ? BulkItemResult.created(index, id) : BulkItemResult.updated(index, id);
+                })
+                .toList();
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package edu.unimagdalena.productservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.unimagdalena.productservice.dto.BulkItemResult;
+import edu.unimagdalena.productservice.dto.ProductLookupResult;
 import edu.unimagdalena.productservice.entity.Product;
 import edu.unimagdalena.productservice.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -16,10 +19,16 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(ProductController.class)
@@ -31,6 +40,11 @@ public class ProductControllerTest {
     @MockitoBean
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        when(productService.getCatalogVersion()).thenReturn(Optional.of("1700000000000.7"));
+    }
+
     @Test
     void shouldCreateProduct() {
         // given
@@ -149,4 +163,210 @@ public class ProductControllerTest {
                 .exchange()
                 .expectStatus().isNoContent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSearchProducts() {
+        // given
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Wireless Mouse");
+        product.setPrice(new BigDecimal("25.0"));
+
+        when(productService.searchProducts(eq("mouse"), eq(10), eq(20L))).thenReturn(Flux.just(product));
+
+        // when & then
+        webTestClient.get().uri("/api/products/search?q=mouse&limit=10&offset=20")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Wireless Mouse");
+    }
+
+    @Test
+    void shouldRejectBlankSearch() {
+        // given
+        when(productService.searchProducts(anyString(), eq(20), eq(0L)))
+                .thenReturn(Flux.error(new IllegalArgumentException("q must not be blank")));
+
+        // when & then
+        webTestClient.get().uri("/api/products/search?q= ")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldBulkUpsertProductsFromNdjson() {
+        // given
+        when(productService.upsertProducts(any())).thenReturn(Flux.just(
+                BulkItemResult.created(0, "a"),
+                BulkItemResult.failed(1, "b", "Document failed validation")));
+
+        // when & then
+        webTestClient.post().uri("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"A\",\"price\":1.0}\n{\"id\":\"b\",\"name\":\"B\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("CREATED")
+                .jsonPath("$[0].error").doesNotExist()
+                .jsonPath("$[1].status").isEqualTo("FAILED")
+                .jsonPath("$[1].error").isEqualTo("Document failed validation");
+    }
+
+    @Test
+    void shouldListOnlyRequestedFields() {
+        // given
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Product 1");
+        product.setPrice(new BigDecimal("100.0"));
+
+        when(productService.getAllProducts(null, null, null, Set.of("id", "name", "price"))).thenReturn(Flux.just(product));
+
+        // when & then
+        webTestClient.get().uri("/api/products?fields=id,name,price")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("Product 1")
+                .jsonPath("$[0].description").doesNotExist()
+                .jsonPath("$[0].version").doesNotExist();
+    }
+
+    @Test
+    void shouldKeepNullFieldsOfFullProducts() {
+        // given
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Product 1");
+
+        when(productService.getAllProducts()).thenReturn(Flux.just(product));
+
+        // when & then
+        webTestClient.get().uri("/api/products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("Product 1")
+                .jsonPath("$[0].description").hasJsonPath()
+                .jsonPath("$[0].price").hasJsonPath();
+    }
+
+    @Test
+    void shouldAnswerUnchangedCatalogWithNotModified() {
+        // given
+        AtomicBoolean queried = new AtomicBoolean();
+        when(productService.getAllProducts()).thenReturn(Flux.defer(() -> {
+            queried.set(true);
+            return Flux.empty();
+        }));
+
+        // when & then
+        webTestClient.get().uri("/api/products")
+                .header("If-None-Match", "\"1700000000000.7\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"1700000000000.7\"");
+
+        assertThat(queried).isFalse();
+    }
+
+    @Test
+    void shouldNotTagCatalogWithoutVersion() {
+        // given
+        when(productService.getCatalogVersion()).thenReturn(Optional.empty());
+        when(productService.getAllProducts()).thenReturn(Flux.empty());
+
+        // when & then
+        webTestClient.get().uri("/api/products")
+                .header("If-None-Match", "\"1700000000000.7\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("ETag");
+    }
+
+    @Test
+    void shouldTagProductWithItsVersion() {
+        // given
+        String uuid = UUID.randomUUID().toString();
+        Product product = new Product();
+        product.setId(uuid);
+        product.setName("Test Product");
+        product.setVersion(3L);
+
+        when(productService.getProductById(uuid)).thenReturn(Mono.just(product));
+
+        // when & then
+        webTestClient.get().uri("/api/products/{id}", uuid)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + uuid + ".3\"");
+        webTestClient.get().uri("/api/products/{id}", uuid)
+                .header("If-None-Match", "\"" + uuid + ".3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void shouldListProductsInPriceRange() {
+        // given
+        Product product = new Product();
+        product.setId(UUID.randomUUID().toString());
+        product.setName("Product 1");
+        product.setPrice(new BigDecimal("20.0"));
+
+        when(productService.getAllProducts(new BigDecimal("10"), new BigDecimal("50"), "price", null))
+                .thenReturn(Flux.just(product));
+
+        // when & then
+        webTestClient.get().uri("/api/products?minPrice=10&maxPrice=50&sort=price")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].price").isEqualTo(20.0);
+    }
+
+    @Test
+    void shouldGetProductsByIds() {
+        // given
+        Product product = new Product();
+        product.setId("a");
+        product.setName("Product A");
+
+        when(productService.getProductsByIds(List.of("a", "b"))).thenReturn(Flux.just(
+                ProductLookupResult.found(product),
+                ProductLookupResult.missing("b")));
+
+        // when & then
+        webTestClient.get().uri("/api/products?ids=a,b")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("a")
+                .jsonPath("$[0].product.name").isEqualTo("Product A")
+                .jsonPath("$[0].missing").doesNotExist()
+                .jsonPath("$[1].id").isEqualTo("b")
+                .jsonPath("$[1].missing").isEqualTo(true);
+    }
+
+    @Test
+    void shouldLookupProductsFromBody() {
+        // given
+        when(productService.getProductsByIds(List.of("x"))).thenReturn(Flux.just(ProductLookupResult.missing("x")));
+
+        // when & then
+        webTestClient.post().uri("/api/products/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of("x"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].missing").isEqualTo(true);
+    }
+}
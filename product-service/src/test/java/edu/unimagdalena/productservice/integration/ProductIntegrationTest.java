@@ -17,7 +17,6 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -42,7 +41,7 @@ public class ProductIntegrationTest {
 
     @AfterEach
     void cleanup() {
-        productRepository.deleteAll(); // No block() necesario - método síncrono
+        productRepository.deleteAll().block();
     }
 
     @Test
@@ -70,10 +69,9 @@ public class ProductIntegrationTest {
         assertThat(createdProduct.getName()).isEqualTo("Integration Test Product");
         assertThat(createdProduct.getPrice()).isEqualByComparingTo(new BigDecimal("150.0"));
 
-        // Verify product exists in database - usando métodos síncronos
-        Optional<Product> storedProductOptional = productRepository.findById(createdProduct.getId());
-        assertThat(storedProductOptional).isPresent();
-        Product storedProduct = storedProductOptional.get();
+        // Verify product exists in database
+        Product storedProduct = productRepository.findById(createdProduct.getId()).block();
+        assertThat(storedProduct).isNotNull();
         assertThat(storedProduct.getName()).isEqualTo("Integration Test Product");
         assertThat(storedProduct.getId()).isNotNull();
 
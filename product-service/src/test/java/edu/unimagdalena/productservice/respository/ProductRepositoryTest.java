@@ -1,19 +1,29 @@
 package edu.unimagdalena.productservice.respository;
 
 
+import edu.unimagdalena.productservice.config.PriceDecimalMigration;
+import edu.unimagdalena.productservice.config.ProductIndexInitializer;
 import edu.unimagdalena.productservice.entity.Product;
 import edu.unimagdalena.productservice.repository.ProductRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -32,6 +42,9 @@ public class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+
     @Test
     void shouldSaveProduct() {
         // given
@@ -42,7 +55,7 @@ public class ProductRepositoryTest {
                 .build();
 
         // when
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct = productRepository.save(product).block();
 
         // then
         assertThat(savedProduct).isNotNull();
@@ -58,14 +71,168 @@ public class ProductRepositoryTest {
                 .description("Test Description")
                 .price(new BigDecimal ("100.0"))
                 .build();
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct = productRepository.save(product).block();
+
+        // when / then
+        StepVerifier.create(productRepository.findById(savedProduct.getId()))
+                .assertNext(foundProduct -> assertThat(foundProduct.getName()).isEqualTo("Test Product"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUpdateWithVersionCheck() {
+        // given
+        Product savedProduct = productRepository.save(Product.builder()
+                .name("Test Product")
+                .description("Test Description")
+                .price(new BigDecimal("100.0"))
+                .build()).block();
+        Product changes = Product.builder()
+                .name("Updated Product")
+                .description("Updated Description")
+                .price(new BigDecimal("120.0"))
+                .version(savedProduct.getVersion())
+                .build();
+
+        // when / then
+        StepVerifier.create(productRepository.updateReturning(savedProduct.getId(), changes))
+                .assertNext(updated -> {
+                    assertThat(updated.getName()).isEqualTo("Updated Product");
+                    assertThat(updated.getVersion()).isEqualTo(savedProduct.getVersion() + 1);
+                })
+                .verifyComplete();
+        StepVerifier.create(productRepository.updateReturning(savedProduct.getId(), changes))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRankNameMatchesFirstInTextSearch() {
+        // given
+        new ProductIndexInitializer(mongoTemplate).run(null);
+        productRepository.deleteAll().block();
+        Product inDescription = productRepository.save(Product.builder()
+                .name("Mouse Pad")
+                .description("Large pad for any keyboard and mouse")
+                .price(new BigDecimal("10.0"))
+                .build()).block();
+        Product inName = productRepository.save(Product.builder()
+                .name("Mechanical Keyboard")
+                .description("Hot-swappable switches")
+                .price(new BigDecimal("90.0"))
+                .build()).block();
+        productRepository.save(Product.builder()
+                .name("Monitor")
+                .description("27 inch display")
+                .price(new BigDecimal("200.0"))
+                .build()).block();
+
+        // when / then
+        StepVerifier.create(productRepository.search("keyboard", 10, 0).map(Product::getId))
+                .expectNext(inName.getId(), inDescription.getId())
+                .verifyComplete();
+        StepVerifier.create(productRepository.search("keyboard", 10, 1).map(Product::getId))
+                .expectNext(inDescription.getId())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldUpsertAllInOneBulkWrite() {
+        // given
+        Product existing = productRepository.save(Product.builder()
+                .name("Existing")
+                .price(new BigDecimal("10.0"))
+                .build()).block();
+        Product changed = Product.builder()
+                .id(existing.getId())
+                .name("Existing v2")
+                .price(new BigDecimal("12.0"))
+                .build();
+        Product created = Product.builder()
+                .id("bulk-new")
+                .name("New")
+                .price(new BigDecimal("5.0"))
+                .build();
+
+        // when / then
+        StepVerifier.create(productRepository.upsertAll(List.of(changed, created)))
+                .assertNext(result -> {
+                    assertThat(result.getMatchedCount()).isEqualTo(1);
+                    assertThat(result.getUpserts()).singleElement()
+                            .satisfies(upsert -> assertThat(upsert.getIndex()).isEqualTo(1));
+                })
+                .verifyComplete();
+        StepVerifier.create(productRepository.findById(existing.getId()))
+                .assertNext(product -> {
+                    assertThat(product.getName()).isEqualTo("Existing v2");
+                    assertThat(product.getVersion()).isEqualTo(existing.getVersion() + 1);
+                })
+                .verifyComplete();
+        StepVerifier.create(productRepository.findById("bulk-new"))
+                .assertNext(product -> assertThat(product.getName()).isEqualTo("New"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldLoadOnlyIncludedFields() {
+        // given
+        productRepository.deleteAll().block();
+        Product saved = productRepository.save(Product.builder()
+                .name("Projected")
+                .description("A very long description")
+                .price(new BigDecimal("10.0"))
+                .build()).block();
+
+        // when / then
+        StepVerifier.create(productRepository.findCatalog(null, null, Sort.unsorted(), Set.of("id", "name", "price")))
+                .assertNext(product -> {
+                    assertThat(product.getId()).isEqualTo(saved.getId());
+                    assertThat(product.getName()).isEqualTo("Projected");
+                    assertThat(product.getDescription()).isNull();
+                })
+                .verifyComplete();
+        StepVerifier.create(productRepository.findCatalog(null, null, Sort.unsorted(), Set.of("name")))
+                .assertNext(product -> assertThat(product.getId()).isNull())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldFilterAndSortByNumericPrice() {
+        // given
+        productRepository.deleteAll().block();
+        Product cheap = productRepository.save(Product.builder().name("Cheap").price(new BigDecimal("9.50")).build()).block();
+        Product middle = productRepository.save(Product.builder().name("Middle").price(new BigDecimal("10.00")).build()).block();
+        Product pricey = productRepository.save(Product.builder().name("Pricey").price(new BigDecimal("100.00")).build()).block();
+        productRepository.save(Product.builder().name("Luxury").price(new BigDecimal("1000.00")).build()).block();
+
+        // when / then
+        StepVerifier.create(productRepository.findCatalog(new BigDecimal("9"), new BigDecimal("100"),
+                        Sort.by(Sort.Order.desc("price"), Sort.Order.desc("id")), null)
+                        .map(Product::getId))
+                .expectNext(pricey.getId(), middle.getId(), cheap.getId())
+                .verifyComplete();
+        StepVerifier.create(mongoTemplate.getCollection("products")
+                        .flatMap(collection -> Mono.from(collection.find(new Document("_id", cheap.getId())).first())))
+                .assertNext(document -> assertThat(document.get("price")).isEqualTo(new Decimal128(new BigDecimal("9.50"))))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldMigrateStringPricesToDecimal128() {
+        // given
+        productRepository.deleteAll().block();
+        mongoTemplate.getCollection("products")
+                .flatMap(collection -> Mono.from(collection.insertOne(new Document("_id", "legacy")
+                        .append("name", "Legacy")
+                        .append("price", "25.40"))))
+                .block();
 
         // when
-        Optional<Product> foundProduct = productRepository.findById(savedProduct.getId());
+        new PriceDecimalMigration(mongoTemplate).run(null);
 
         // then
-        assertThat(foundProduct).isPresent();
-        assertThat(foundProduct.get().getName()).isEqualTo("Test Product");
+        StepVerifier.create(productRepository.findCatalog(new BigDecimal("25"), null, Sort.unsorted(), null))
+                .assertNext(product -> assertThat(product.getPrice()).isEqualByComparingTo("25.40"))
+                .verifyComplete();
     }
 }
-
@@ -0,0 +1,124 @@
+package edu.unimagdalena.productservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.unimagdalena.productservice.config.ProductProperties;
+import edu.unimagdalena.productservice.entity.Product;
+import edu.unimagdalena.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    private Path directory;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final AsyncCache<String, Product> productCache = Caffeine.newBuilder().buildAsync();
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+    private final ProductProperties productProperties = new ProductProperties();
+
+    private final Product keyboard = Product.builder()
+            .id("p1")
+            .name("Keyboard")
+            .description("Mechanical, ñ layout")
+            .price(new BigDecimal("89.90"))
+            .version(4L)
+            .build();
+    private final Product cable = Product.builder()
+            .id("p2")
+            .name("Cable")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        productProperties.getSnapshot().setEnabled(true);
+        productProperties.getSnapshot().setPath(directory.resolve("catalog.snapshot"));
+    }
+
+    @Test
+    void shouldServeWrittenSnapshotAfterRestart() {
+        // given
+        newSnapshot().write(Flux.just(keyboard, cable)).block();
+
+        // when
+        CatalogSnapshot restarted = newSnapshot();
+
+        // then
+        assertThat(restarted.servesCatalog()).isTrue();
+        assertThat(restarted.get("p1")).isEqualTo(keyboard);
+        assertThat(restarted.get("p2")).isEqualTo(cable);
+        assertThat(restarted.get("missing")).isNull();
+        StepVerifier.create(restarted.getAll())
+                .expectNext(keyboard, cable)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldStopServingProductsWrittenSinceStartup() {
+        // given
+        newSnapshot().write(Flux.just(keyboard, cable)).block();
+        CatalogSnapshot restarted = newSnapshot();
+
+        // when
+        restarted.markStale("p1");
+
+        // then
+        assertThat(restarted.get("p1")).isNull();
+        assertThat(restarted.get("p2")).isEqualTo(cable);
+        assertThat(restarted.servesCatalog()).isFalse();
+    }
+
+    @Test
+    void shouldReleaseSnapshotOnceReconciledWithMongo() {
+        // given
+        newSnapshot().write(Flux.just(keyboard)).block();
+        CatalogSnapshot restarted = newSnapshot();
+        productCache.put("p1", CompletableFuture.completedFuture(keyboard));
+        when(productRepository.findAll()).thenReturn(Flux.just(keyboard, cable));
+        String listedVersion = catalogVersion.current();
+
+        // when
+        restarted.reconcile().block();
+
+        // then
+        assertThat(restarted.servesCatalog()).isFalse();
+        assertThat(restarted.get("p1")).isNull();
+        assertThat(productCache.getIfPresent("p1")).isNull();
+        assertThat(catalogVersion.current()).isNotEqualTo(listedVersion);
+        StepVerifier.create(newSnapshot().getAll())
+                .expectNext(keyboard, cable)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldIgnoreUnreadableSnapshot() throws Exception {
+        // given
+        Files.writeString(productProperties.getSnapshot().getPath(), "not a snapshot");
+
+        // when
+        CatalogSnapshot snapshot = newSnapshot();
+
+        // then
+        assertThat(snapshot.servesCatalog()).isFalse();
+        assertThat(snapshot.get("p1")).isNull();
+    }
+
+    private CatalogSnapshot newSnapshot() {
+        return new CatalogSnapshot(productRepository, productCache, catalogVersion, Schedulers.immediate(),
+                productProperties);
+    }
+}
@@ -1,21 +1,44 @@
 package edu.unimagdalena.productservice.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import edu.unimagdalena.productservice.config.ProductProperties;
+import edu.unimagdalena.productservice.dto.BulkItemResult;
+import edu.unimagdalena.productservice.dto.ProductLookupResult;
 import edu.unimagdalena.productservice.entity.Product;
 import edu.unimagdalena.productservice.repository.ProductRepository;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.data.domain.Sort;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +47,18 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private AsyncCache<String, Product> productCache = Caffeine.newBuilder().buildAsync();
+
+    @Spy
+    private ProductProperties productProperties = new ProductProperties();
+
+    @Spy
+    private CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Mock
+    private CatalogSnapshot catalogSnapshot;
+
     @InjectMocks
     private ProductService productService;
 
@@ -45,7 +80,7 @@ public class ProductServiceTest {
                 .price(new BigDecimal("100.00"))
                 .build();
 
-        when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
+        when(productRepository.insert(any(Product.class))).thenReturn(Mono.just(savedProduct));
 
         // when & then
         StepVerifier.create(productService.createProduct(productToSave))
@@ -58,7 +93,8 @@ public class ProductServiceTest {
                 })
                 .verifyComplete();
 
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).insert(any(Product.class));
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
@@ -81,7 +117,7 @@ public class ProductServiceTest {
                 .price(new BigDecimal("200.00"))
                 .build();
 
-        when(productRepository.findAll()).thenReturn(Arrays.asList(product1, product2));
+        when(productRepository.findAll()).thenReturn(Flux.just(product1, product2));
 
         // when & then
         StepVerifier.create(productService.getAllProducts())
@@ -103,7 +139,7 @@ public class ProductServiceTest {
                 .price(new BigDecimal("100.00"))
                 .build();
 
-        when(productRepository.findById(uuid)).thenReturn(Optional.of(product));
+        when(productRepository.findById(uuid)).thenReturn(Mono.just(product));
 
         // when & then
         StepVerifier.create(productService.getProductById(uuid))
@@ -123,15 +159,64 @@ public class ProductServiceTest {
     void shouldGetEmptyMonoWhenProductNotFound() {
         // given
         String uuid = UUID.randomUUID().toString();
-        when(productRepository.findById(uuid)).thenReturn(Optional.empty());
+        when(productRepository.findById(uuid)).thenReturn(Mono.empty());
+
+        // when & then
+        StepVerifier.create(productService.getProductById(uuid))
+                .verifyComplete();
+
+        verify(productRepository, times(1)).findById(uuid);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        // given
+        String uuid = UUID.randomUUID().toString();
+        Product product = Product.builder()
+                .id(uuid)
+                .name("Test Product")
+                .price(new BigDecimal("100.00"))
+                .build();
+        when(productRepository.findById(uuid)).thenReturn(Mono.just(product));
 
         // when & then
         StepVerifier.create(productService.getProductById(uuid))
+                .expectNext(product)
+                .verifyComplete();
+        StepVerifier.create(productService.getProductById(uuid))
+                .expectNext(product)
                 .verifyComplete();
 
         verify(productRepository, times(1)).findById(uuid);
     }
 
+    @Test
+    void shouldInvalidateCachedProductOnUpdateAndDelete() {
+        // given
+        String uuid = UUID.randomUUID().toString();
+        Product product = Product.builder()
+                .id(uuid)
+                .name("Test Product")
+                .price(new BigDecimal("100.00"))
+                .build();
+        Product changes = Product.builder()
+                .name("Updated Product")
+                .build();
+        when(productRepository.findById(uuid)).thenReturn(Mono.just(product));
+        when(productRepository.updateReturning(uuid, changes)).thenReturn(Mono.just(product));
+        when(productRepository.deleteById(uuid)).thenReturn(Mono.empty());
+
+        // when
+        productService.getProductById(uuid).block();
+        productService.updateProduct(uuid, changes).block();
+        productService.getProductById(uuid).block();
+        productService.deleteProduct(uuid).block();
+
+        // then
+        assertThat(productCache.getIfPresent(uuid)).isNull();
+        verify(productRepository, times(2)).findById(uuid);
+    }
+
     @Test
     void shouldUpdateProduct() {
         // given
@@ -150,8 +235,7 @@ public class ProductServiceTest {
                 .price(new BigDecimal("150.00"))
                 .build();
 
-        when(productRepository.existsById(uuid)).thenReturn(true);
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.updateReturning(uuid, productToUpdate)).thenReturn(Mono.just(updatedProduct));
 
         // when & then
         StepVerifier.create(productService.updateProduct(uuid, productToUpdate))
@@ -164,8 +248,9 @@ public class ProductServiceTest {
                 })
                 .verifyComplete();
 
-        verify(productRepository, times(1)).existsById(uuid);
-        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productRepository, times(1)).updateReturning(uuid, productToUpdate);
+        verify(productRepository, never()).existsById(anyString());
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
@@ -179,13 +264,13 @@ public class ProductServiceTest {
                 .price(new BigDecimal("150.00"))
                 .build();
 
-        when(productRepository.existsById(uuid)).thenReturn(false);
+        when(productRepository.updateReturning(uuid, productToUpdate)).thenReturn(Mono.empty());
 
         // when & then
         StepVerifier.create(productService.updateProduct(uuid, productToUpdate))
                 .verifyComplete();
 
-        verify(productRepository, times(1)).existsById(uuid);
+        verify(productRepository, times(1)).updateReturning(uuid, productToUpdate);
         verify(productRepository, never()).save(any(Product.class));
     }
 
@@ -193,7 +278,7 @@ public class ProductServiceTest {
     void shouldDeleteProduct() {
         // given
         String uuid = UUID.randomUUID().toString();
-        doNothing().when(productRepository).deleteById(uuid);
+        when(productRepository.deleteById(uuid)).thenReturn(Mono.empty());
 
         // when & then
         StepVerifier.create(productService.deleteProduct(uuid))
@@ -201,4 +286,211 @@ public class ProductServiceTest {
 
         verify(productRepository, times(1)).deleteById(uuid);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldCapSearchLimit() {
+        // given
+        productProperties.getSearch().setMaxLimit(50);
+        when(productRepository.search("mouse", 50, 0)).thenReturn(Flux.empty());
+
+        // when & then
+        StepVerifier.create(productService.searchProducts("mouse", 500, 0))
+                .verifyComplete();
+
+        verify(productRepository, times(1)).search("mouse", 50, 0);
+    }
+
+    @Test
+    void shouldRejectBlankSearchQuery() {
+        StepVerifier.create(productService.searchProducts(" ", 10, 0))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(productRepository, never()).search(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void shouldUpsertProductsInChunks() {
+        // given
+        productProperties.getBulk().setChunkSize(2);
+        Product existing = Product.builder().id("existing").name("Existing").build();
+        Product fresh = Product.builder().name("Fresh").build();
+        Product other = Product.builder().id("other").name("Other").build();
+
+        BulkWriteResult firstChunk = mock(BulkWriteResult.class);
+        when(firstChunk.getUpserts()).thenReturn(List.of(new BulkWriteUpsert(1, new BsonString("fresh"))));
+        BulkWriteResult secondChunk = mock(BulkWriteResult.class);
+        when(secondChunk.getUpserts()).thenReturn(List.of());
+        when(productRepository.upsertAll(anyList())).thenReturn(Mono.just(firstChunk), Mono.just(secondChunk));
+
+        // when & then
+        StepVerifier.create(productService.upsertProducts(Flux.just(existing, fresh, other)))
+                .expectNext(BulkItemResult.updated(0, "existing"))
+                .assertNext(result -> {
+                    assertThat(result.index()).isEqualTo(1);
+                    assertThat(result.status()).isEqualTo(BulkItemResult.Status.CREATED);
+                    assertThat(result.id()).isNotNull();
+                })
+                .expectNext(BulkItemResult.updated(2, "other"))
+                .verifyComplete();
+
+        verify(productRepository, times(2)).upsertAll(anyList());
+        verify(productRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void shouldReportFailedItemsOfPartiallyAppliedChunk() {
+        // given
+        Product first = Product.builder().id("first").name("First").build();
+        Product second = Product.builder().id("second").name("Second").build();
+
+        BulkWriteResult partial = mock(BulkWriteResult.class);
+        when(partial.getUpserts()).thenReturn(List.of(new BulkWriteUpsert(1, new BsonString("second"))));
+        MongoBulkWriteException failure = mock(MongoBulkWriteException.class);
+        when(failure.getWriteResult()).thenReturn(partial);
+        when(failure.getWriteErrors()).thenReturn(List.of(new BulkWriteError(121, "Document failed validation", new BsonDocument(), 0)));
+        when(productRepository.upsertAll(anyList())).thenReturn(Mono.error(failure));
+
+        // when & then
+        StepVerifier.create(productService.upsertProducts(Flux.just(first, second)))
+                .expectNext(BulkItemResult.failed(0, "first", "Document failed validation"))
+                .expectNext(BulkItemResult.created(1, "second"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldProjectRequestedFields() {
+        // given
+        Set<String> fields = Set.of("id", "name", "price");
+        Product product = Product.builder().id("p1").name("Product 1").price(new BigDecimal("10.00")).build();
+        when(productRepository.findCatalog(null, null, Sort.unsorted(), fields)).thenReturn(Flux.just(product));
+
+        // when & then
+        StepVerifier.create(productService.getAllProducts(null, null, null, fields))
+                .expectNext(product)
+                .verifyComplete();
+
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldRejectUnknownProjectionField() {
+        StepVerifier.create(productService.getAllProducts(null, null, null, Set.of("id", "secret")))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(productRepository, never()).findCatalog(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldBumpCatalogVersionOnWrites() {
+        // given
+        String uuid = UUID.randomUUID().toString();
+        Product product = Product.builder().id(uuid).name("Test Product").build();
+        when(productRepository.updateReturning(uuid, product)).thenReturn(Mono.just(product));
+        when(productRepository.deleteById(uuid)).thenReturn(Mono.empty());
+        productProperties.getListing().setEtag(true);
+        Optional<String> initial = productService.getCatalogVersion();
+
+        // when
+        productService.updateProduct(uuid, product).block();
+        Optional<String> afterUpdate = productService.getCatalogVersion();
+        productService.deleteProduct(uuid).block();
+
+        // then
+        assertThat(afterUpdate).isNotEqualTo(initial);
+        assertThat(productService.getCatalogVersion()).isNotEqualTo(afterUpdate);
+        assertThat(productService.getCatalogVersion()).isEqualTo(productService.getCatalogVersion());
+    }
+
+    @Test
+    void shouldNotExposeCatalogVersionUnlessEnabled() {
+        // when
+        Optional<String> version = productService.getCatalogVersion();
+
+        // then
+        assertThat(version).isEmpty();
+    }
+
+    @Test
+    void shouldQueryPriceRangeInPriceOrder() {
+        // given
+        BigDecimal min = new BigDecimal("10");
+        BigDecimal max = new BigDecimal("50");
+        Sort byPrice = Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+        when(productRepository.findCatalog(min, max, byPrice, null)).thenReturn(Flux.empty());
+
+        // when & then
+        StepVerifier.create(productService.getAllProducts(min, max, "price", null))
+                .verifyComplete();
+
+        verify(productRepository, times(1)).findCatalog(min, max, byPrice, null);
+    }
+
+    @Test
+    void shouldRejectInvalidPriceQuery() {
+        StepVerifier.create(productService.getAllProducts(new BigDecimal("50"), new BigDecimal("10"), null, null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        StepVerifier.create(productService.getAllProducts(null, null, "name", null))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(productRepository, never()).findCatalog(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldServeFromSnapshotAfterRestart() {
+        // given
+        String uuid = UUID.randomUUID().toString();
+        Product product = Product.builder().id(uuid).name("Snapshot Product").build();
+        when(catalogSnapshot.get(uuid)).thenReturn(product);
+        when(catalogSnapshot.servesCatalog()).thenReturn(true);
+        when(catalogSnapshot.getAll()).thenReturn(Flux.just(product));
+
+        // when & then
+        StepVerifier.create(productService.getProductById(uuid))
+                .expectNext(product)
+                .verifyComplete();
+        StepVerifier.create(productService.getAllProducts())
+                .expectNext(product)
+                .verifyComplete();
+
+        verify(productRepository, never()).findById(anyString());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldResolveIdsInRequestOrderWithOneQuery() {
+        // given
+        Product cached = Product.builder().id("a").name("Cached").build();
+        Product stored = Product.builder().id("c").name("Stored").build();
+        productCache.put("a", CompletableFuture.completedFuture(cached));
+        when(productRepository.findAllById(anyIterable())).thenReturn(Flux.just(stored));
+
+        // when & then
+        StepVerifier.create(productService.getProductsByIds(List.of("c", "b", "a")))
+                .expectNext(ProductLookupResult.found(stored))
+                .expectNext(ProductLookupResult.missing("b"))
+                .expectNext(ProductLookupResult.found(cached))
+                .verifyComplete();
+
+        ArgumentCaptor<Iterable<String>> queried = ArgumentCaptor.forClass(Iterable.class);
+        verify(productRepository, times(1)).findAllById(queried.capture());
+        assertThat(queried.getValue()).containsExactlyInAnyOrder("b", "c");
+    }
+
+    @Test
+    void shouldRejectTooManyIds() {
+        // given
+        productProperties.getLookup().setMaxIds(2);
+
+        // when & then
+        StepVerifier.create(productService.getProductsByIds(List.of("a", "b", "c")))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verify(productRepository, never()).findAllById(anyIterable());
+    }
+}
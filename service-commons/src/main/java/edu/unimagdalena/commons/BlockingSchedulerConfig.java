@@ -0,0 +1,44 @@
+package edu.unimagdalena.commons;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the {@link Scheduler} that every blocking repository call is offloaded to, selected with
+ * {@code blocking.scheduler}:
+ * <ul>
+ *     <li>{@code bounded-elastic} (default): Reactor's shared pool, capped at 10 threads per core with
+ *     a task queue behind it.</li>
+ *     <li>{@code virtual-threads}: one virtual thread per call, so slow queries park cheaply instead
+ *     of queueing; concurrency is then only limited by the connection pool.</li>
+ * </ul>
+ * Registered as an auto-configuration, so every service that depends on this module gets the bean
+ * without scanning this package; a service can still declare its own {@code blockingScheduler}.
+ */
+@AutoConfiguration
+public class BlockingSchedulerConfig {
+
+    public enum Mode {
+        BOUNDED_ELASTIC, VIRTUAL_THREADS
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnMissingBean(name = "blockingScheduler")
+    public Scheduler blockingScheduler(@Value("${blocking.scheduler:bounded-elastic}") Mode mode) {
+        return create(mode);
+    }
+
+    public static Scheduler create(Mode mode) {
+        return switch (mode) {
+            case BOUNDED_ELASTIC -> Schedulers.boundedElastic();
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(
+                    Executors.newVirtualThreadPerTaskExecutor(), "virtual-threads");
+        };
+    }
+}
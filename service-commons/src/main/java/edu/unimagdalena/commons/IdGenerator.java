@@ -0,0 +1,44 @@
+package edu.unimagdalena.commons;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates primary keys. {@code uuid-v7} ids start with a millisecond timestamp and a per-process
+ * sequence, so consecutive inserts land next to each other in the primary key B-tree instead of
+ * on random pages like {@code UUID.randomUUID()}.
+ * <p>
+ * Not a bean by itself: each service declares one with the strategy from its own
+ * {@code <service>.id.strategy} property.
+ */
+public class IdGenerator {
+
+    public enum Strategy {
+        RANDOM, UUID_V7
+    }
+
+    private final Strategy strategy;
+
+    /**
+     * Unix millis shifted left by 12 bits plus a 12-bit sequence; always increases, borrowing from
+     * the next millisecond if more than 4096 ids are requested within one.
+     */
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    public IdGenerator(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public String nextId() {
+        return (strategy == Strategy.UUID_V7 ? nextUuidV7() : UUID.randomUUID()).toString();
+    }
+
+    UUID nextUuidV7() {
+        long stamp = lastTimestampAndSequence.updateAndGet(
+                last -> Math.max(last + 1, System.currentTimeMillis() << 12));
+        long mostSigBits = ((stamp >>> 12) << 16) | 0x7000L | (stamp & 0xFFFL);
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
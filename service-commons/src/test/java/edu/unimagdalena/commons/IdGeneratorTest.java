@@ -0,0 +1,48 @@
+package edu.unimagdalena.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdGeneratorTest {
+
+    @Test
+    void uuidV7_shouldSetVersionAndVariantBits() {
+        UUID uuid = UUID.fromString(new IdGenerator(IdGenerator.Strategy.UUID_V7).nextId());
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void uuidV7_shouldEmbedCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = new IdGenerator(IdGenerator.Strategy.UUID_V7).nextUuidV7();
+        long after = System.currentTimeMillis();
+
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertThat(timestamp).isBetween(before, after + 1);
+    }
+
+    @Test
+    void uuidV7_shouldBeStrictlyIncreasingAsStrings() {
+        IdGenerator generator = new IdGenerator(IdGenerator.Strategy.UUID_V7);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void random_shouldGenerateVersion4Uuids() {
+        UUID uuid = UUID.fromString(new IdGenerator(IdGenerator.Strategy.RANDOM).nextId());
+
+        assertThat(uuid.version()).isEqualTo(4);
+    }
+}